@@ -2,40 +2,186 @@ package metaheuristics.ga;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 import problems.Evaluator;
 import solutions.Solution;
+import structures.IndexedMinHeap;
 
 /**
  * Abstract class for metaheuristic GA (Genetic Algorithms). It consider the
  * maximization of the chromosome fitness.
  *
- * @param <G> Generic type of the chromosome element (genotype).
+ * The chromosomes are binary (see {@link Chromosome}).
+ * <p>
+ * The GA keeps two populations of preallocated chromosomes: the current one,
+ * and a spare one in which the offsprings are written. They are swapped at the
+ * end of each generation, and the parents are selected by their indices, so
+ * that the generational loop allocates no chromosomes.
+ *
  * @param <F> Generic type of the candidate to enter the solution (fenotype).
  * @author ccavellucci, fusberti
  */
-public abstract class AbstractGA<G extends Number, F> {
+public abstract class AbstractGA<F> {
+
+    /**
+     * The selection methods for the parents.
+     */
+    public enum SelectionType {
+        /**
+         * the best of k chromosomes drawn uniformly.
+         */
+        Tournament,
+        /**
+         * a chromosome drawn with a probability decreasing linearly with its
+         * rank.
+         */
+        Rank
+    }
 
-    public class Chromosome extends ArrayList<G> {
-        public Double fitness = null;
+    /**
+     * A population of chromosomes, which can be ranked by fitness. After
+     * {@link #rank()}, which takes O(n), the best and worst chromosomes and
+     * the mean fitness are given in O(1), and a chromosome whose fitness
+     * changed is re-keyed by {@link #update(int)} in O(log n). The order of
+     * all the ranks, only needed by the rank selection, is sorted on demand.
+     */
+    public class Population extends ArrayList<Chromosome> {
 
-        public Chromosome() {
-            super();
+        /**
+         * the fitness of each chromosome when it was ranked or updated
+         */
+        private double[] keys = new double[0];
+
+        /**
+         * the sum of {@link #keys}
+         */
+        private double sumFitness;
+
+        /**
+         * the heap of the chromosomes by fitness, with the worst on top
+         */
+        private IndexedMinHeap worstFirst;
+
+        /**
+         * the heap of the chromosomes by decreasing fitness, with the best on
+         * top, holding n - 1 - i for the chromosome of index i, so that among
+         * chromosomes of equal fitness the one of larger index is the best,
+         * and the one of smaller index the worst, in both heaps
+         */
+        private IndexedMinHeap bestFirst;
+
+        /**
+         * the heap emptied to sort the ranks
+         */
+        private IndexedMinHeap sorter;
+
+        /**
+         * the indices of the chromosomes, from the best to the worst, and the
+         * position of each chromosome there, valid if {@link #sorted}
+         */
+        private int[] order, ranks;
+
+        private boolean sorted;
+
+        /**
+         * Ranks the chromosomes, which should all be evaluated, by their
+         * fitness.
+         */
+        public void rank() {
+            int n = size();
+            if (keys.length != n) {
+                keys = new double[n];
+                order = new int[n];
+                ranks = new int[n];
+                worstFirst = new IndexedMinHeap(n);
+                bestFirst = new IndexedMinHeap(n);
+                sorter = new IndexedMinHeap(n);
+            }
+            sumFitness = 0.0;
+            for (int i = 0; i < n; i++) {
+                keys[i] = get(i).fitness;
+                sumFitness += keys[i];
+            }
+            worstFirst.build(n, i -> keys[i]);
+            bestFirst.build(n, j -> -keys[n - 1 - j]);
+            sorted = false;
         }
 
-        public Chromosome(Chromosome other) {
-            super(other);
-            fitness = other.fitness;
+        /**
+         * Re-keys a chromosome of a ranked population, whose fitness changed.
+         *
+         * @param i The index of the chromosome.
+         */
+        public void update(int i) {
+            sumFitness += get(i).fitness - keys[i];
+            keys[i] = get(i).fitness;
+            worstFirst.put(i, keys[i]);
+            bestFirst.put(keys.length - 1 - i, -keys[i]);
+            sorted = false;
         }
 
-        @Override
-        public Chromosome clone() {
-            return new Chromosome(this);
+        /**
+         * Sorts the chromosomes by rank, in O(n log n), if any of them was
+         * re-keyed since they were last sorted.
+         */
+        private void sort() {
+            if (sorted)
+                return;
+            sorter.build(keys.length, i -> keys[i]);
+            for (int r = keys.length - 1; r >= 0; r--) { // the worst leave the heap first
+                order[r] = sorter.poll();
+                ranks[order[r]] = r;
+            }
+            sorted = true;
         }
-    }
 
-    public class Population extends ArrayList<Chromosome> {
+        /**
+         * @param r A rank, starting from 0 for the best chromosome.
+         * @return The index of the chromosome of that rank.
+         */
+        public int indexOfRank(int r) {
+            if (r == 0)
+                return indexOfBest();
+            if (r == keys.length - 1)
+                return indexOfWorst();
+            sort();
+            return order[r];
+        }
+
+        /**
+         * @param i The index of a chromosome.
+         * @return Its rank, starting from 0 for the best chromosome.
+         */
+        public int rankOf(int i) {
+            sort();
+            return ranks[i];
+        }
+
+        public int indexOfBest() {
+            return keys.length - 1 - bestFirst.peek();
+        }
+
+        public int indexOfWorst() {
+            return worstFirst.peek();
+        }
+
+        public Chromosome best() {
+            return get(indexOfBest());
+        }
+
+        public Chromosome worst() {
+            return get(indexOfWorst());
+        }
+
+        public double meanFitness() {
+            return sumFitness / keys.length;
+        }
     }
 
     /**
@@ -45,15 +191,39 @@ public abstract class AbstractGA<G extends Number, F> {
     public static boolean verbose = true;
 
     /**
-     * a random number generator
+     * a random number generator, which is not shared with other solvers
      */
-    public static final Random rng = new Random(42);
+    protected SplittableGenerator rng = new SplittableRandom(42);
 
     /**
      * the objective function being optimized
      */
     protected Evaluator<F> ObjFunction;
 
+    /**
+     * the pool evaluating the chromosomes in parallel, or null if they are
+     * evaluated by the calling thread.
+     */
+    protected ForkJoinPool pool = null;
+
+    /**
+     * the copies of {@link #ObjFunction} used by the threads of {@link #pool},
+     * since an evaluator keeps the state of the solution being evaluated.
+     */
+    private final ThreadLocal<Evaluator<F>> workerObjFunction = ThreadLocal.withInitial(() -> ObjFunction.copy());
+
+    /**
+     * a buffer per thread for the genes of a chromosome being evaluated, which
+     * are recorded in the {@link #cache} together with their evaluation.
+     */
+    private final ThreadLocal<long[]> genesBuffer = ThreadLocal.withInitial(() -> new long[(this.chromosomeSize + 63) >>> 6]);
+
+    /**
+     * the cache of the evaluated chromosomes, or null if every chromosome is
+     * evaluated.
+     */
+    protected FitnessCache cache = null;
+
     /**
      * maximum number of generations being executed
      */
@@ -74,6 +244,27 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     public double mutationRate;
 
+    /**
+     * the operator recombining the parents, the 2-point crossover by default
+     */
+    protected Crossover crossoverOperator = new KPointCrossover(2);
+
+    /**
+     * the fraction of the offsprings improved by {@link #improveChromosome}
+     * each generation, which makes the GA memetic when positive
+     */
+    public double localSearchRate = 0.0;
+
+    /**
+     * the method selecting the parents, the binary tournament by default
+     */
+    protected SelectionType selectionType = SelectionType.Tournament;
+
+    /**
+     * the number of chromosomes competing in each tournament
+     */
+    protected int tournamentSize = 2;
+
     /**
      * the best solution cost
      */
@@ -89,6 +280,33 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Chromosome bestChromosome;
 
+    /**
+     * the current population
+     */
+    protected Population population;
+
+    /**
+     * the population whose chromosomes are overwritten by the offsprings of
+     * {@link #population}
+     */
+    protected Population spare;
+
+    /**
+     * the indices in {@link #population} of the parents selected for
+     * crossover
+     */
+    protected int[] parents;
+
+    /**
+     * the chromosomes waiting for their evaluation
+     */
+    private final List<Chromosome> pending = new ArrayList<>();
+
+    /**
+     * the number of generations executed so far
+     */
+    protected int generation;
+
     /**
      * Creates a new solution which is empty, i.e., does not contain any
      * candidate solution element.
@@ -123,7 +341,7 @@ public abstract class AbstractGA<G extends Number, F> {
      * @param chromosome The genotype being considered for fitness evaluation.
      * @return The fitness value for the input chromosome.
      */
-    protected abstract Double fitness(Chromosome chromosome);
+    protected abstract double fitness(Chromosome chromosome);
 
     /**
      * Mutates a given locus of the chromosome. This method should be preferably
@@ -132,7 +350,18 @@ public abstract class AbstractGA<G extends Number, F> {
      * @param chromosome The genotype being mutated.
      * @param locus      The position in the genotype being mutated.
      */
-    protected abstract void mutateGene(Chromosome chromosome, Integer locus);
+    protected abstract void mutateGene(Chromosome chromosome, int locus);
+
+    /**
+     * Improves an evaluated chromosome by local search, updating its genes and
+     * fitness, for the memetic GA (see {@link #localSearchRate}). It may be
+     * called concurrently for different chromosomes, thus it should only use
+     * {@link #evaluator()}. By default, the chromosome is left unchanged.
+     *
+     * @param chromosome The chromosome being improved.
+     */
+    protected void improveChromosome(Chromosome chromosome) {
+    }
 
     /**
      * Creates an Evaluator based on the parameters in the input file.
@@ -155,12 +384,176 @@ public abstract class AbstractGA<G extends Number, F> {
         this.popSize = popSize;
         this.chromosomeSize = this.ObjFunction.getDomainSize();
         this.mutationRate = mutationRate;
+        setCacheCapacity(8 * popSize);
     }
 
     public double getGenerations() {
         return generations;
     }
 
+    /**
+     * Sets how many threads evaluate the chromosomes. Only the evaluations run
+     * in parallel, all the random choices are still made by the calling
+     * thread, so a run gives the same result for any number of threads.
+     *
+     * @param parallelism The number of threads, or 1 for a serial evaluation.
+     */
+    public void setParallelism(int parallelism) {
+        if (pool != null)
+            pool.shutdown();
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Sets the random number generator of the solver, so that solvers running
+     * in the same JVM can have independent and reproducible seeds.
+     *
+     * @param rng The random number generator.
+     */
+    public void setRandomGenerator(SplittableGenerator rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Sets the crossover operator.
+     *
+     * @param type  The crossover operator type.
+     * @param param The number of points of the k-point crossover, or the
+     *              probability of exchanging each gene of the parametrized
+     *              uniform crossover. Ignored by the uniform crossover.
+     */
+    public void setCrossover(Crossover.CrossoverType type, double param) {
+        if (type == Crossover.CrossoverType.KPoint)
+            this.crossoverOperator = new KPointCrossover(param);
+        else if (type == Crossover.CrossoverType.Uniform)
+            this.crossoverOperator = new UniformCrossover(0.5);
+        else if (type == Crossover.CrossoverType.ParametrizedUniform)
+            this.crossoverOperator = new UniformCrossover(param);
+    }
+
+    /**
+     * Sets the selection method of the parents.
+     *
+     * @param type           The selection method.
+     * @param tournamentSize The number of chromosomes competing in each
+     *                       tournament. Ignored by the rank selection.
+     */
+    public void setSelection(SelectionType type, int tournamentSize) {
+        this.selectionType = type;
+        this.tournamentSize = Math.max(1, tournamentSize);
+    }
+
+    /**
+     * Sets how many evaluated chromosomes are cached, so that a chromosome
+     * which was already seen in the run is not evaluated again.
+     *
+     * @param capacity The maximum number of chromosomes cached, or 0 for no
+     *                 cache.
+     */
+    public void setCacheCapacity(int capacity) {
+        cache = capacity > 0 ? new FitnessCache(capacity) : null;
+    }
+
+    /**
+     * Gives the objective function to be used by the current thread.
+     *
+     * @return {@link #ObjFunction}, or a private copy of it when called from
+     * a thread of {@link #pool}.
+     */
+    protected Evaluator<F> evaluator() {
+        return pool != null && ForkJoinTask.getPool() == pool ? workerObjFunction.get() : ObjFunction;
+    }
+
+    /**
+     * Computes the fitness of a chromosome which was just generated or
+     * modified. Subclasses may override it to also make the chromosome
+     * viable before evaluating it. It may be called concurrently for
+     * different chromosomes, thus it should only use {@link #evaluator()}.
+     *
+     * @param chromosome The chromosome being evaluated.
+     */
+    protected void evaluateChromosome(Chromosome chromosome) {
+        chromosome.fitness = fitness(chromosome);
+    }
+
+    /**
+     * Evaluates the chromosomes of a population which were generated or
+     * modified since their last evaluation, through
+     * {@link #evaluateChromosome}, in parallel if there is a {@link #pool}.
+     * The population is then ranked.
+     *
+     * @param population A population of distinct chromosomes.
+     */
+    protected void evaluatePopulation(Population population) {
+        pending.clear();
+        for (int i = 0; i < population.size(); i++)
+            if (Double.isNaN(population.get(i).fitness))
+                pending.add(population.get(i));
+        runPending(this::evaluateCached);
+        population.rank();
+    }
+
+    /**
+     * Improves a random fraction {@link #localSearchRate} of a population
+     * through {@link #improveChromosome}, in parallel if there is a
+     * {@link #pool}, and ranks it again. The chromosomes are drawn by the
+     * calling thread.
+     *
+     * @param population An evaluated population of distinct chromosomes.
+     */
+    protected void improvePopulation(Population population) {
+        if (localSearchRate <= 0)
+            return;
+        pending.clear();
+        for (int i = 0; i < population.size(); i++)
+            if (rng.nextDouble() < localSearchRate)
+                pending.add(population.get(i));
+        runPending(this::improveChromosome);
+        population.rank();
+    }
+
+    /**
+     * Runs a task on each of the {@link #pending} chromosomes, in parallel if
+     * there is a {@link #pool}.
+     *
+     * @param task The task, which should only modify its chromosome.
+     */
+    private void runPending(Consumer<Chromosome> task) {
+        if (pool == null) {
+            for (int i = 0; i < pending.size(); i++)
+                task.accept(pending.get(i));
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(pending.size());
+        for (Chromosome c : pending)
+            tasks.add(pool.submit(() -> task.accept(c)));
+        for (ForkJoinTask<?> submitted : tasks)
+            submitted.join();
+    }
+
+    /**
+     * Evaluates a chromosome through {@link #evaluateChromosome}, unless it was
+     * not modified since its last evaluation or its evaluation is found in
+     * the {@link #cache}.
+     *
+     * @param chromosome The chromosome being evaluated.
+     */
+    private void evaluateCached(Chromosome chromosome) {
+        if (!Double.isNaN(chromosome.fitness))
+            return;
+        if (cache == null) {
+            evaluateChromosome(chromosome);
+            return;
+        }
+        if (cache.lookup(chromosome))
+            return;
+        long key = chromosome.zobristHash();
+        long[] genes = genesBuffer.get();
+        chromosome.copyGenes(genes);
+        evaluateChromosome(chromosome);
+        cache.put(key, genes, chromosome);
+    }
+
     /**
      * The GA mainframe. It starts by initializing a population of chromosomes.
      * It then enters a generational loop, in which each generation goes the
@@ -170,31 +563,81 @@ public abstract class AbstractGA<G extends Number, F> {
      * @return The best feasible solution obtained throughout all iterations.
      */
     public Solution<F> solve() {
-        Population population = initializePopulation(); // starts the initial population
-        bestChromosome = getBestChromosome(population);
+        initialize();
+
+        // Enter the main loop and repeats until a given number of generations:
+        while (generation < generations)
+            step();
+        if (verbose && cache != null)
+            System.out.println("Fitness cache hit ratio = " + cache.hitRatio());
+
+        return bestSol;
+    }
+
+    /**
+     * Starts the GA, initializing the population and the best solution.
+     */
+    public void initialize() {
+        population = initializePopulation(); // starts the initial population
+        spare = new Population();
+        while (spare.size() < popSize)
+            spare.add(new Chromosome(chromosomeSize));
+        parents = new int[popSize];
+        generation = 0;
+        bestChromosome = getBestChromosome(population).clone();
         bestSol = decode(bestChromosome);
         System.out.println("(Gen. " + 0 + ") BestSol = " + bestSol);
+    }
 
-        // Enter the main loop and repeats until a given number of generations:
-        int interval = generations / 10;
-        for (int g = 1; g <= generations; g++) {
-            Population parents = selectParents(population);
-            Population offsprings = crossover(parents);
-            Population mutants = mutate(offsprings);
-            population = selectPopulation(mutants);
-            var popBestChromosome = getBestChromosome(population);
-
-            if (verbose && g % interval == 0)
-                System.out.println("(Gen. " + g + ") CurrSol = " + decode(popBestChromosome));
-            if (popBestChromosome.fitness > bestChromosome.fitness) {
-                bestSol = decode(popBestChromosome);
-                bestChromosome = popBestChromosome.clone();
-                if (verbose)
-                    System.out.println("(Gen. " + g + ") BestSol = " + bestSol);
-            }
+    /**
+     * Executes one generation of the GA, which goes through the parent
+     * selection, crossover, mutation, local search (if memetic), population
+     * update and best solution update.
+     */
+    public void step() {
+        int g = ++generation, interval = generations / 10;
+        selectParents(population);
+        Population offsprings = crossover(population);
+        Population mutants = mutate(offsprings);
+        improvePopulation(mutants);
+        spare = population;
+        population = selectPopulation(mutants);
+        var popBestChromosome = getBestChromosome(population);
+
+        if (verbose && g % interval == 0)
+            System.out.println("(Gen. " + g + ") CurrSol = " + decode(popBestChromosome));
+        updateBest(popBestChromosome);
+    }
+
+    /**
+     * Takes a chromosome as the best one, if it is better than the best
+     * chromosome found so far.
+     *
+     * @param chromosome An evaluated chromosome.
+     */
+    protected void updateBest(Chromosome chromosome) {
+        if (chromosome.fitness > bestChromosome.fitness) {
+            bestSol = decode(chromosome);
+            bestChromosome.copyFrom(chromosome);
+            if (verbose)
+                System.out.println("(Gen. " + generation + ") BestSol = " + bestSol);
         }
+    }
 
-        return bestSol;
+    /**
+     * Brings a chromosome from another population into the current one, in
+     * place of its worst chromosome, unless the immigrant is not better than
+     * it.
+     *
+     * @param immigrant An evaluated chromosome of the same problem.
+     */
+    protected void immigrate(Chromosome immigrant) {
+        int worse = population.indexOfWorst();
+        if (immigrant.fitness <= population.get(worse).fitness)
+            return;
+        population.get(worse).copyFrom(immigrant);
+        population.update(worse);
+        updateBest(immigrant);
     }
 
     /**
@@ -204,11 +647,9 @@ public abstract class AbstractGA<G extends Number, F> {
      */
     protected Population initializePopulation() {
         Population population = new Population();
-        while (population.size() < popSize) {
-            var aux = generateRandomChromosome();
-            population.add(aux);
-            aux.fitness = fitness(aux);
-        }
+        while (population.size() < popSize)
+            population.add(generateRandomChromosome());
+        evaluatePopulation(population);
         return population;
     }
 
@@ -216,110 +657,90 @@ public abstract class AbstractGA<G extends Number, F> {
      * Given a population of chromosome, takes the best chromosome according to
      * the fitness evaluation.
      *
-     * @param population A population of chromosomes.
+     * @param population A ranked population of chromosomes.
      * @return The best chromosome among the population.
      */
     protected Chromosome getBestChromosome(Population population) {
-        double bestFitness = Double.NEGATIVE_INFINITY;
-        Chromosome bestChromosome = null;
-        for (Chromosome c : population) {
-            if (c.fitness > bestFitness) {
-                bestFitness = c.fitness;
-                bestChromosome = c;
-            }
-        }
-        return bestChromosome;
+        return population.best();
     }
 
     /**
      * Given a population of chromosome, takes the worst chromosome according to
      * the fitness evaluation.
      *
-     * @param population A population of chromosomes.
+     * @param population A ranked population of chromosomes.
      * @return The worst chromosome among the population.
      */
     protected Chromosome getWorseChromosome(Population population) {
-        double worseFitness = Double.POSITIVE_INFINITY;
-        Chromosome worseChromosome = null;
-        for (Chromosome c : population) {
-            if (c.fitness < worseFitness) {
-                worseFitness = c.fitness;
-                worseChromosome = c;
-            }
-        }
-        return worseChromosome;
+        return population.worst();
     }
 
     /**
-     * Selection of parents for crossover using the tournament method. Given a
-     * population of chromosomes, randomly takes two chromosomes and compare
-     * them by their fitness. The best one is selected as parent. Repeat until
+     * Selection of parents for crossover through {@link #selectParent}, until
      * the number of selected parents is equal to {@link #popSize}.
      *
      * @param population The current population.
-     * @return The selected parents for performing crossover.
-     */
-    protected Population selectParents(Population population) {
-        Population parents = new Population();
-        while (parents.size() < popSize) {
-            int index1 = rng.nextInt(popSize), index2 = rng.nextInt(popSize);
-            Chromosome parent1 = population.get(index1), parent2 = population.get(index2);
-            if (parent1.fitness > parent2.fitness)
-                parents.add(parent1);
-            else
-                parents.add(parent2);
-        }
+     * @return The indices of the selected parents for performing crossover,
+     * which are also kept in {@link #parents}.
+     */
+    protected int[] selectParents(Population population) {
+        for (int p = 0; p < popSize; p++)
+            parents[p] = selectParent(population);
         return parents;
     }
 
+    /**
+     * Selects a parent with the {@link #selectionType} method. The tournament
+     * method randomly takes {@link #tournamentSize} chromosomes and compare
+     * them by their fitness, selecting the best one. The rank method draws a
+     * rank r with probability proportional to 2 (n - r) - 1, in O(1) from the
+     * ranking of the population once its ranks are sorted.
+     *
+     * @param population The current population, which is ranked.
+     * @return The index of the selected parent.
+     */
+    protected int selectParent(Population population) {
+        int n = population.size();
+        if (selectionType == SelectionType.Rank) {
+            // floor of the inverse of the CDF 1 - (1 - x / n)^2 on [0, n)
+            int r = (int) (n * (1.0 - Math.sqrt(1.0 - rng.nextDouble())));
+            return population.indexOfRank(Math.min(r, n - 1));
+        }
+        int best = rng.nextInt(n);
+        for (int k = 1; k < tournamentSize; k++) {
+            int index = rng.nextInt(n);
+            if (!(population.get(best).fitness > population.get(index).fitness))
+                best = index;
+        }
+        return best;
+    }
+
     /**
      * The crossover step takes the parents generated by {@link #selectParents}
-     * and recombine their genes to generate new chromosomes (offsprings). The
-     * method being used is the 2-point crossover, which randomly selects two
-     * locus for being the points of exchange (P1 and P2). For example:
-     * <p>
-     * P1            P2
-     * Parent 1: X1 ... Xi | Xi+1 ... Xj | Xj+1 ... Xn
-     * Parent 2: Y1 ... Yi | Yi+1 ... Yj | Yj+1 ... Yn
+     * and recombine their genes to generate new chromosomes (offsprings)
+     * through the {@link #crossoverOperator}, which is the 2-point crossover
+     * unless changed by {@link #setCrossover}.
      * <p>
-     * Offspring 1: X1 ... Xi | Yi+1 ... Yj | Xj+1 ... Xn
-     * Offspring 2: Y1 ... Yi | Xi+1 ... Xj | Yj+1 ... Yn
+     * The offsprings are written into the {@link #spare} population.
      *
-     * @param parents The selected parents for crossover.
+     * @param population The population holding the selected {@link #parents}.
      * @return The resulting offsprings.
      */
-    protected Population crossover(Population parents) {
-        Population offsprings = new Population();
+    protected Population crossover(Population population) {
+        Population offsprings = spare;
 
         for (int i = 0; i < popSize; i = i + 2) {
-            Chromosome parent1 = parents.get(i), parent2 = parents.get(i + 1);
+            Chromosome offspring1 = offsprings.get(i), offspring2 = offsprings.get(i + 1);
+            offspring1.copyFrom(population.get(parents[i]));
+            offspring2.copyFrom(population.get(parents[i + 1]));
 
-            if (parent1 == parent2) { // Save time as the offspring will be the same as the parents:
-                offsprings.add(parent1);
-                offsprings.add(parent2);
+            if (parents[i] == parents[i + 1]) // Save time as the offspring will be the same as the parents
                 continue;
-            }
-
-            int crosspoint1 = rng.nextInt(chromosomeSize + 1);
-            int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
 
-            Chromosome offspring1 = new Chromosome(), offspring2 = new Chromosome();
-
-            for (int j = 0; j < chromosomeSize; j++)
-                if (j >= crosspoint1 && j < crosspoint2) {
-                    offspring1.add(parent2.get(j));
-                    offspring2.add(parent1.get(j));
-                } else {
-                    offspring1.add(parent1.get(j));
-                    offspring2.add(parent2.get(j));
-                }
-
-            offspring1.fitness = fitness(offspring1);
-            offspring2.fitness = fitness(offspring2);
-            offsprings.add(offspring1);
-            offsprings.add(offspring2);
+            crossoverOperator.recombine(offspring1, offspring2, rng);
         }
 
+        evaluatePopulation(offsprings);
         return offsprings;
     }
 
@@ -333,31 +754,56 @@ public abstract class AbstractGA<G extends Number, F> {
      * @return The mutated offsprings.
      */
     protected Population mutate(Population offsprings) {
-        for (Chromosome c : offsprings) {
-            if (rng.nextDouble() < mutationRate) {
-                for (int locus = 0; locus < chromosomeSize; locus++)
-                    if (rng.nextDouble() < mutationRate / 10)
-                        mutateGene(c, locus);
-                c.fitness = fitness(c);
-            }
-        }
+        for (int i = 0; i < offsprings.size(); i++)
+            mutateChromosome(offsprings.get(i), mutationRate);
+        evaluatePopulation(offsprings);
         return offsprings;
     }
 
+    /**
+     * Mutates a chromosome with probability rate, in which case each of its
+     * loci is mutated with probability rate / 10. Instead of drawing a number
+     * for each locus, the gap to the next mutated locus is drawn from the
+     * geometric distribution, so the cost is proportional to the number of
+     * mutations.
+     *
+     * @param chromosome The chromosome being mutated.
+     * @param rate       The mutation rate.
+     */
+    protected void mutateChromosome(Chromosome chromosome, double rate) {
+        double p = rate / 10;
+        if (p <= 0 || rng.nextDouble() >= rate)
+            return;
+        if (p >= 1) {
+            for (int locus = 0; locus < chromosomeSize; locus++)
+                mutateGene(chromosome, locus);
+            return;
+        }
+        double logQ = Math.log1p(-p);
+        for (int locus = -1; ; ) {
+            // P(gap >= k) = (1 - p)^k, as with one draw per locus
+            double gap = Math.floor(Math.log1p(-rng.nextDouble()) / logQ);
+            if (gap >= chromosomeSize - 1 - locus)
+                return;
+            locus += 1 + (int) gap;
+            mutateGene(chromosome, locus);
+        }
+    }
+
     /**
      * Updates the population that will be considered for the next GA
      * generation. The method used for updating the population is the elitist,
-     * which simply takes the worse chromosome from the offsprings and replace
-     * it with the best chromosome found so far.
+     * which simply overwrites the worse chromosome from the offsprings with
+     * the best chromosome found so far.
      *
      * @param offsprings The offsprings generated by {@link #crossover}.
      * @return The updated population for the next generation.
      */
     protected Population selectPopulation(Population offsprings) {
-        Chromosome worse = getWorseChromosome(offsprings);
-        if (worse.fitness < bestChromosome.fitness) {
-            offsprings.remove(worse);
-            offsprings.add(bestChromosome);
+        int worse = offsprings.indexOfWorst();
+        if (offsprings.get(worse).fitness < bestChromosome.fitness) {
+            offsprings.get(worse).copyFrom(bestChromosome);
+            offsprings.update(worse);
         }
         return offsprings;
     }
@@ -0,0 +1,358 @@
+package metaheuristics.ga;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A binary chromosome, whose genes are packed 64 to a word in a long array.
+ * Besides accessing single genes, it allows recombining and comparing whole
+ * chromosomes a word at a time.
+ * <p>
+ * Once the chromosome is modified its {@link #fitness} is dropped, but it is
+ * kept as the {@link #baseFitness()} together with the genes changed since,
+ * so that the new fitness can be computed from the changed genes alone.
+ * <p>
+ * A Zobrist hash of the genes, the xor of a random key per gene set, is also
+ * kept up to date through every modification.
+ */
+public class Chromosome implements Cloneable {
+
+    /**
+     * the fitness of the chromosome, or NaN if it was not evaluated since it
+     * was last modified.
+     */
+    public double fitness = Double.NaN;
+
+    /**
+     * the last known fitness of the chromosome, before the genes in
+     * {@link #changed} were modified, or NaN if it is unknown.
+     */
+    private double baseFitness = Double.NaN;
+
+    /**
+     * the number of genes of the chromosome.
+     */
+    private final int size;
+
+    /**
+     * the genes of the chromosome, where the gene at locus i is the bit
+     * (i % 64) of the word (i / 64). The bits past {@link #size} are zero.
+     */
+    private final long[] words;
+
+    /**
+     * the genes modified since the chromosome had the fitness
+     * {@link #baseFitness}, packed as {@link #words}.
+     */
+    private final long[] changed;
+
+    /**
+     * the Zobrist hash of the genes.
+     */
+    private long hash = 0L;
+
+    /**
+     * Creates a chromosome with all genes set to zero.
+     *
+     * @param size the number of genes.
+     */
+    public Chromosome(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        this.changed = new long[words.length];
+    }
+
+    public Chromosome(Chromosome other) {
+        size = other.size;
+        words = other.words.clone();
+        changed = other.changed.clone();
+        hash = other.hash;
+        fitness = other.fitness;
+        baseFitness = other.baseFitness;
+    }
+
+    /**
+     * Overwrites this chromosome with a copy of another one, without
+     * allocating memory.
+     *
+     * @param other a chromosome of the same size.
+     */
+    public void copyFrom(Chromosome other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+        System.arraycopy(other.changed, 0, changed, 0, changed.length);
+        hash = other.hash;
+        fitness = other.fitness;
+        baseFitness = other.baseFitness;
+    }
+
+    /**
+     * Creates a chromosome whose genes are drawn uniformly at random.
+     *
+     * @param size the number of genes.
+     * @param rng  the random number generator.
+     * @return the random chromosome.
+     */
+    public static Chromosome random(int size, RandomGenerator rng) {
+        Chromosome chromosome = new Chromosome(size);
+        for (int w = 0; w < chromosome.words.length; w++)
+            chromosome.words[w] = rng.nextLong();
+        chromosome.clearTail();
+        chromosome.rehash();
+        return chromosome;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean get(int locus) {
+        return (words[locus >>> 6] & (1L << locus)) != 0;
+    }
+
+    public void set(int locus, boolean value) {
+        if (get(locus) != value)
+            flip(locus);
+    }
+
+    public void flip(int locus) {
+        modify();
+        words[locus >>> 6] ^= 1L << locus;
+        changed[locus >>> 6] ^= 1L << locus;
+        hash ^= zobristKey(locus);
+    }
+
+    /**
+     * @return the Zobrist hash of the genes.
+     */
+    public long zobristHash() {
+        return hash;
+    }
+
+    /**
+     * Gives the random key of a locus, which is a 64-bit mix of the locus, so
+     * that no table of keys needs to be kept.
+     *
+     * @param locus the locus.
+     * @return the key of the locus.
+     */
+    static long zobristKey(int locus) {
+        long z = (locus + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Computes the Zobrist hash of the genes from scratch.
+     */
+    private void rehash() {
+        hash = 0L;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+            hash ^= zobristKey(i);
+    }
+
+    /**
+     * @return whether the genes are the ones given.
+     */
+    boolean hasGenes(long[] genes) {
+        return Arrays.equals(words, genes);
+    }
+
+    /**
+     * Copies the genes into an array.
+     *
+     * @param genes an array with {@link #wordCount()} words.
+     */
+    void copyGenes(long[] genes) {
+        System.arraycopy(words, 0, genes, 0, words.length);
+    }
+
+    /**
+     * Replaces the genes by the ones given, as a modification of the
+     * chromosome.
+     *
+     * @param genes   the new genes.
+     * @param hash    the Zobrist hash of the new genes.
+     * @param fitness the fitness of the new genes.
+     */
+    void setGenes(long[] genes, long hash, double fitness) {
+        modify();
+        for (int w = 0; w < words.length; w++) {
+            changed[w] ^= words[w] ^ genes[w];
+            words[w] = genes[w];
+        }
+        this.hash = hash;
+        this.fitness = fitness;
+    }
+
+    /**
+     * @return the fitness of the chromosome before the changes given by
+     * {@link #nextChangedBit(int)}, or NaN if it is unknown.
+     */
+    public double baseFitness() {
+        return baseFitness;
+    }
+
+    /**
+     * @return the number of genes changed since {@link #baseFitness()}.
+     */
+    public int changedCount() {
+        int count = 0;
+        for (long word : changed)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Gives the first locus, starting at a given one, whose gene changed since
+     * {@link #baseFitness()}.
+     *
+     * @param from the first locus to look at.
+     * @return the locus found, or -1 if there is none.
+     */
+    public int nextChangedBit(int from) {
+        return nextBit(changed, from);
+    }
+
+    /**
+     * Drops the fitness of a chromosome being modified, keeping it as the base
+     * for the changes that follow.
+     */
+    private void modify() {
+        if (!Double.isNaN(fitness)) {
+            baseFitness = fitness;
+            fitness = Double.NaN;
+            Arrays.fill(changed, 0L);
+        }
+    }
+
+    /**
+     * Gives the first locus, starting at a given one, whose gene is set.
+     *
+     * @param from the first locus to look at.
+     * @return the locus found, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        return nextBit(words, from);
+    }
+
+    private int nextBit(long[] words, int from) {
+        if (from >= size)
+            return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == words.length)
+                return -1;
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return the number of genes set.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Gives the number of loci where two chromosomes differ.
+     *
+     * @param other a chromosome of the same size.
+     * @return the Hamming distance between the chromosomes.
+     */
+    public int distance(Chromosome other) {
+        int count = 0;
+        for (int w = 0; w < words.length; w++)
+            count += Long.bitCount(words[w] ^ other.words[w]);
+        return count;
+    }
+
+    /**
+     * Exchanges the genes in the loci [from, to) with another chromosome.
+     *
+     * @param other a chromosome of the same size.
+     * @param from  the first locus exchanged.
+     * @param to    the locus after the last one exchanged.
+     */
+    public void exchange(Chromosome other, int from, int to) {
+        if (from >= to)
+            return;
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            long mask = -1L;
+            if (w == first)
+                mask &= -1L << from;
+            if (w == last)
+                mask &= -1L >>> -to;
+            exchangeWord(other, w, mask);
+        }
+    }
+
+    /**
+     * Exchanges the genes of a word selected by a mask with another
+     * chromosome.
+     *
+     * @param other a chromosome of the same size.
+     * @param w     the index of the word.
+     * @param mask  the genes of the word being exchanged.
+     */
+    public void exchangeWord(Chromosome other, int w, long mask) {
+        long diff = (words[w] ^ other.words[w]) & mask;
+        if (diff == 0)
+            return;
+        modify();
+        other.modify();
+        words[w] ^= diff;
+        other.words[w] ^= diff;
+        changed[w] ^= diff;
+        other.changed[w] ^= diff;
+        for (long bits = diff; bits != 0; bits &= bits - 1) {
+            long key = zobristKey((w << 6) + Long.numberOfTrailingZeros(bits));
+            hash ^= key;
+            other.hash ^= key;
+        }
+    }
+
+    /**
+     * @return the number of words holding the genes.
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Zeroes the bits of the last word past the last gene.
+     */
+    private void clearTail() {
+        if ((size & 63) != 0)
+            words[words.length - 1] &= -1L >>> -size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Chromosome && Arrays.equals(words, ((Chromosome) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++)
+            sb.append(get(i) ? '1' : '0');
+        return sb.toString();
+    }
+
+    @Override
+    public Chromosome clone() {
+        return new Chromosome(this);
+    }
+}
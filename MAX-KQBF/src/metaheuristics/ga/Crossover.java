@@ -0,0 +1,32 @@
+package metaheuristics.ga;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A crossover operator for bit-packed chromosomes. The operators recombine the
+ * parents a word at a time: each word of the offspring is built from a mask m
+ * as (p1 &amp; m) | (p2 &amp; ~m) and (p2 &amp; m) | (p1 &amp; ~m), through
+ * {@link Chromosome#exchangeWord}, which also records the genes changed in each
+ * offspring for the delta fitness evaluation.
+ */
+public abstract class Crossover {
+
+    public enum CrossoverType {
+        KPoint, Uniform, ParametrizedUniform
+    }
+
+    public final double PARAM;
+
+    public Crossover(double param) {
+        PARAM = param;
+    }
+
+    /**
+     * Recombines two parents in place, so that each one becomes an offspring.
+     *
+     * @param offspring1 A copy of the first parent.
+     * @param offspring2 A copy of the second parent.
+     * @param rng        The random number generator.
+     */
+    public abstract void recombine(Chromosome offspring1, Chromosome offspring2, RandomGenerator rng);
+}
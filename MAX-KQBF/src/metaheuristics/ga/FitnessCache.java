@@ -0,0 +1,181 @@
+package metaheuristics.ga;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of evaluated chromosomes, keyed by their Zobrist hash (see
+ * {@link Chromosome#zobristHash()}). Each entry maps the genes of a chromosome
+ * before its evaluation to its genes and fitness after it, since evaluating a
+ * chromosome may also repair it.
+ * <p>
+ * The cache is split into segments, each one guarded by its own lock, so that
+ * it can be used by concurrent evaluations. When a segment is full, an entry
+ * is evicted with the CLOCK policy: a hand sweeps the slots, sparing once the
+ * entries looked up since it last passed by. The genes of an entry are copied
+ * into arrays owned by its slot, which are reused by the entries that evict
+ * it, so a full cache allocates no memory.
+ */
+public class FitnessCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder lookups = new LongAdder(), hits = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of chromosomes kept.
+     */
+    public FitnessCache(int capacity) {
+        int slots = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int s = 0; s < SEGMENTS; s++)
+            segments[s] = new Segment(slots);
+    }
+
+    /**
+     * Looks up a chromosome, and, if it was evaluated before, replaces its
+     * genes by the evaluated ones and sets its fitness.
+     *
+     * @param chromosome the chromosome about to be evaluated.
+     * @return true if the chromosome was found.
+     */
+    public boolean lookup(Chromosome chromosome) {
+        lookups.increment();
+        long key = chromosome.zobristHash();
+        if (!segmentOf(key).lookup(key, chromosome))
+            return false;
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Records the evaluation of a chromosome.
+     *
+     * @param key        the Zobrist hash of the chromosome before its
+     *                   evaluation.
+     * @param genes      the genes of the chromosome before its evaluation,
+     *                   which are copied.
+     * @param chromosome the evaluated chromosome.
+     */
+    public void put(long key, long[] genes, Chromosome chromosome) {
+        segmentOf(key).put(key, genes, chromosome);
+    }
+
+    /**
+     * @return the fraction of the lookups which found the chromosome.
+     */
+    public double hitRatio() {
+        long n = lookups.sum();
+        return n == 0 ? 0.0 : (double) hits.sum() / n;
+    }
+
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clear();
+        lookups.reset();
+        hits.reset();
+    }
+
+    private Segment segmentOf(long key) {
+        return segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * A part of the cache, whose slots are indexed by an open addressing table
+     * of keys with linear probing.
+     */
+    private static class Segment {
+        private final int[] table; // the slot of each key plus one, or zero
+        private final long[] keys;
+        private final long[][] genes, evaluatedGenes;
+        private final long[] evaluatedKeys;
+        private final double[] fitness;
+        private final boolean[] referenced;
+        private int size = 0, hand = 0;
+
+        Segment(int slots) {
+            table = new int[Integer.highestOneBit(2 * slots - 1) << 1];
+            keys = new long[slots];
+            genes = new long[slots][];
+            evaluatedGenes = new long[slots][];
+            evaluatedKeys = new long[slots];
+            fitness = new double[slots];
+            referenced = new boolean[slots];
+        }
+
+        /**
+         * @return the position of a key in the table, or of the empty entry
+         * where it would be.
+         */
+        private int find(long key) {
+            int mask = table.length - 1;
+            int pos = (int) key & mask;
+            while (table[pos] != 0 && keys[table[pos] - 1] != key)
+                pos = (pos + 1) & mask;
+            return pos;
+        }
+
+        /**
+         * Removes the key of a table position, shifting back the following
+         * keys of its probe sequence.
+         */
+        private void unlink(int pos) {
+            int mask = table.length - 1;
+            for (int next = (pos + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+                int home = (int) keys[table[next] - 1] & mask;
+                if (((next - home) & mask) >= ((next - pos) & mask)) {
+                    table[pos] = table[next];
+                    pos = next;
+                }
+            }
+            table[pos] = 0;
+        }
+
+        synchronized boolean lookup(long key, Chromosome chromosome) {
+            int slot = table[find(key)] - 1;
+            if (slot < 0 || !chromosome.hasGenes(genes[slot]))
+                return false;
+            referenced[slot] = true;
+            chromosome.setGenes(evaluatedGenes[slot], evaluatedKeys[slot], fitness[slot]);
+            return true;
+        }
+
+        synchronized void put(long key, long[] genes, Chromosome chromosome) {
+            int pos = find(key), slot = table[pos] - 1;
+            if (slot < 0) {
+                if (size < keys.length) {
+                    slot = size++;
+                    this.genes[slot] = new long[genes.length];
+                    evaluatedGenes[slot] = new long[genes.length];
+                } else {
+                    while (referenced[hand]) {
+                        referenced[hand] = false;
+                        hand = (hand + 1) % keys.length;
+                    }
+                    slot = hand;
+                    hand = (hand + 1) % keys.length;
+                    unlink(find(keys[slot]));
+                    pos = find(key);
+                }
+                table[pos] = slot + 1;
+                keys[slot] = key;
+            }
+            System.arraycopy(genes, 0, this.genes[slot], 0, genes.length);
+            chromosome.copyGenes(evaluatedGenes[slot]);
+            evaluatedKeys[slot] = chromosome.zobristHash();
+            fitness[slot] = chromosome.fitness;
+            referenced[slot] = false;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, 0);
+            Arrays.fill(genes, null);
+            Arrays.fill(evaluatedGenes, null);
+            Arrays.fill(referenced, false);
+            size = hand = 0;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package metaheuristics.ga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import solutions.Solution;
+
+/**
+ * Island model for the GA. Several GAs of the same problem, the islands,
+ * evolve their populations on separate threads, and every
+ * {@link #migrationInterval} generations each island sends a copy of its best
+ * chromosome to its neighbours. The migrants are exchanged through lock-free
+ * mailboxes, which each island empties at the end of every generation, so the
+ * islands never wait for each other.
+ *
+ * @param <F> Generic type of the candidate to enter the solution (fenotype).
+ */
+public class IslandGA<F> {
+
+    /**
+     * The topologies for the migration between islands.
+     */
+    public enum Topology {
+        /**
+         * each island sends its migrants to the next one.
+         */
+        Ring,
+        /**
+         * each island sends its migrants to all the others.
+         */
+        FullyConnected
+    }
+
+    /**
+     * the GAs evolving on each island
+     */
+    public final List<? extends AbstractGA<F>> islands;
+
+    /**
+     * the number of generations between migrations
+     */
+    public final int migrationInterval;
+
+    /**
+     * the topology of the migrations
+     */
+    public final Topology topology;
+
+    /**
+     * the chromosomes sent to each island and not yet received
+     */
+    private final List<ConcurrentLinkedQueue<Chromosome>> mailboxes = new ArrayList<>();
+
+    /**
+     * the best solution found by any island
+     */
+    protected Solution<F> bestSol;
+
+    /**
+     * Constructor for the IslandGA class. Each island gets its own random
+     * number generator, split from a common one seeded with 42.
+     *
+     * @param islands           The GAs evolving on each island, which should
+     *                          optimize the same objective function.
+     * @param migrationInterval The number of generations between migrations.
+     * @param topology          The topology of the migrations.
+     */
+    public IslandGA(List<? extends AbstractGA<F>> islands, int migrationInterval, Topology topology) {
+        this(islands, migrationInterval, topology, new SplittableRandom(42));
+    }
+
+    /**
+     * Constructor for the IslandGA class. Each island gets its own random
+     * number generator, split from the given one, in place of the one it had.
+     *
+     * @param islands           The GAs evolving on each island, which should
+     *                          optimize the same objective function.
+     * @param migrationInterval The number of generations between migrations.
+     * @param topology          The topology of the migrations.
+     * @param rng               The random number generator the ones of the
+     *                          islands are split from.
+     */
+    public IslandGA(List<? extends AbstractGA<F>> islands, int migrationInterval, Topology topology,
+                    SplittableGenerator rng) {
+        this.islands = islands;
+        this.migrationInterval = migrationInterval;
+        this.topology = topology;
+        for (AbstractGA<F> island : islands) {
+            island.setRandomGenerator(rng.split());
+            mailboxes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Evolves all islands, each one on its own thread, until they execute
+     * their number of generations.
+     *
+     * @return The best solution found by any island.
+     */
+    public Solution<F> solve() {
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < islands.size(); i++) {
+                int island = i;
+                runs.add(executor.submit(() -> evolve(island)));
+            }
+            for (Future<?> run : runs)
+                run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AbstractGA<F> best = null;
+        for (AbstractGA<F> island : islands)
+            if (best == null || island.bestChromosome.fitness > best.bestChromosome.fitness)
+                best = island;
+        return bestSol = best.bestSol;
+    }
+
+    /**
+     * Evolves one island, sending and receiving its migrants.
+     *
+     * @param i The index of the island.
+     */
+    private void evolve(int i) {
+        AbstractGA<F> island = islands.get(i);
+        ConcurrentLinkedQueue<Chromosome> mailbox = mailboxes.get(i);
+        island.initialize();
+        while (island.generation < island.generations) {
+            island.step();
+            if (island.generation % migrationInterval == 0)
+                emigrate(i, island.bestChromosome);
+            for (Chromosome immigrant = mailbox.poll(); immigrant != null; immigrant = mailbox.poll())
+                island.immigrate(immigrant);
+        }
+    }
+
+    /**
+     * Sends copies of a chromosome to the neighbours of an island.
+     *
+     * @param i       The index of the island.
+     * @param migrant The chromosome being sent.
+     */
+    private void emigrate(int i, Chromosome migrant) {
+        int n = islands.size();
+        switch (topology) {
+            case Ring:
+                if (n > 1)
+                    mailboxes.get((i + 1) % n).offer(migrant.clone());
+                break;
+            case FullyConnected:
+                for (int j = 0; j < n; j++)
+                    if (j != i)
+                        mailboxes.get(j).offer(migrant.clone());
+                break;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package metaheuristics.ga;
+
+import java.util.random.RandomGenerator;
+
+public class KPointCrossover extends Crossover {
+
+    /**
+     * the crossover points of the last recombination
+     */
+    private final int[] points;
+
+    KPointCrossover(double k) {
+        super(k);
+        points = new int[(int) k];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Draws k points of exchange and swaps every other segment between them,
+     * starting from the one after the first point. For k = 2:
+     * <p>
+     * Offspring 1: X1 ... Xi | Yi+1 ... Yj | Xj+1 ... Xn
+     * Offspring 2: Y1 ... Yi | Xi+1 ... Xj | Yj+1 ... Yn
+     */
+    @Override
+    public void recombine(Chromosome offspring1, Chromosome offspring2, RandomGenerator rng) {
+        int size = offspring1.size();
+        for (int i = 0; i < points.length; i++) { // insertion sort, as k is small
+            int point = rng.nextInt(size + 1), j = i;
+            for (; j > 0 && points[j - 1] > point; j--)
+                points[j] = points[j - 1];
+            points[j] = point;
+        }
+        for (int i = 0; i < points.length; i += 2)
+            offspring1.exchange(offspring2, points[i], i + 1 < points.length ? points[i + 1] : size);
+    }
+}
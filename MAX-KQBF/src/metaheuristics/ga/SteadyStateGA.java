@@ -0,0 +1,202 @@
+package metaheuristics.ga;
+
+import solutions.Solution;
+
+/**
+ * Steady-state engine for a GA. Instead of replacing the whole population
+ * every generation, each step breeds two offsprings with the operators of the
+ * GA, and each offspring replaces the worst chromosome of the population if it
+ * is better than it and not already in the population. The worst chromosome
+ * is kept by the ranking of the population (see
+ * {@link AbstractGA.Population#update(int)}), and the duplicates are found
+ * through a table of the Zobrist hashes of the population (see
+ * {@link Chromosome#zobristHash()}).
+ * <p>
+ * A run takes popSize / 2 steps per generation of the GA, so it evaluates as
+ * many offsprings as the generational GA, but an improvement can be bred from
+ * as soon as it is found. Overrides of {@link AbstractGA#crossover} and
+ * {@link AbstractGA#mutate} are not used, only the
+ * {@link AbstractGA#crossoverOperator} and {@link AbstractGA#mutateChromosome}.
+ *
+ * @param <F> Generic type of the candidate to enter the solution (fenotype).
+ */
+public class SteadyStateGA<F> {
+
+    /**
+     * the GA whose population evolves
+     */
+    public final AbstractGA<F> ga;
+
+    /**
+     * the position in the population of each hash plus one, or zero, indexed
+     * by open addressing with linear probing
+     */
+    int[] table;
+
+    /**
+     * the hash of each chromosome of the population, as indexed in
+     * {@link #table}
+     */
+    long[] hashes;
+
+    /**
+     * the number of chromosomes of the population having the hash of each
+     * table position, so that a hash stays indexed while any of its
+     * duplicates is left
+     */
+    int[] counts;
+
+    /**
+     * the two offsprings bred at each step
+     */
+    private AbstractGA<F>.Population offsprings;
+
+    /**
+     * the number of offsprings which replaced a chromosome of the population
+     */
+    public long replacements;
+
+    /**
+     * Constructor for the SteadyStateGA class.
+     *
+     * @param ga The GA providing the population, the operators and the number
+     *           of generations.
+     */
+    public SteadyStateGA(AbstractGA<F> ga) {
+        this.ga = ga;
+    }
+
+    /**
+     * Evolves the population of the GA one offspring at a time.
+     *
+     * @return The best feasible solution obtained throughout all steps.
+     */
+    public Solution<F> solve() {
+        initialize();
+        long steps = (long) ga.generations * Math.max(1, ga.popSize / 2);
+        long interval = Math.max(1, steps / 10);
+        for (long s = 1; s <= steps; s++) {
+            step();
+            if (AbstractGA.verbose && s % interval == 0)
+                System.out.println("(Step " + s + ") BestSol = " + ga.bestSol); // the population keeps the best
+        }
+        ga.generation = ga.generations;
+        if (AbstractGA.verbose && ga.cache != null)
+            System.out.println("Fitness cache hit ratio = " + ga.cache.hitRatio());
+        return ga.bestSol;
+    }
+
+    /**
+     * Initializes the population of the GA and indexes it.
+     */
+    public void initialize() {
+        ga.initialize();
+        int n = ga.population.size();
+        table = new int[Integer.highestOneBit(2 * n - 1) << 1];
+        hashes = new long[n];
+        counts = new int[table.length];
+        replacements = 0;
+        for (int i = 0; i < n; i++) {
+            Chromosome c = ga.population.get(i);
+            hashes[i] = c.zobristHash();
+            int pos = find(hashes[i]);
+            if (table[pos] == 0) // a duplicate of the initial population is only counted
+                table[pos] = i + 1;
+            counts[pos]++;
+        }
+        offsprings = ga.new Population();
+        offsprings.add(new Chromosome(ga.chromosomeSize));
+        offsprings.add(new Chromosome(ga.chromosomeSize));
+    }
+
+    /**
+     * Breeds two offsprings from two parents selected by
+     * {@link AbstractGA#selectParent}, and
+     * inserts each one into the population in place of its worst chromosome,
+     * unless it is not better than it or it is a duplicate.
+     */
+    public void step() {
+        Chromosome offspring1 = offsprings.get(0), offspring2 = offsprings.get(1);
+        offspring1.copyFrom(ga.population.get(ga.selectParent(ga.population)));
+        offspring2.copyFrom(ga.population.get(ga.selectParent(ga.population)));
+        ga.crossoverOperator.recombine(offspring1, offspring2, ga.rng);
+        ga.mutateChromosome(offspring1, ga.mutationRate);
+        ga.mutateChromosome(offspring2, ga.mutationRate);
+        ga.evaluatePopulation(offsprings);
+        insert(offspring1);
+        insert(offspring2);
+    }
+
+    /**
+     * Copies an offspring over the worst chromosome of the population, if it
+     * is better than it and not already in the population.
+     *
+     * @param offspring An evaluated chromosome.
+     */
+    private void insert(Chromosome offspring) {
+        int i = ga.population.indexOfWorst();
+        Chromosome replaced = ga.population.get(i);
+        if (offspring.fitness <= replaced.fitness)
+            return;
+        long hash = offspring.zobristHash();
+        int pos = find(hash);
+        if (table[pos] != 0 && ga.population.get(table[pos] - 1).equals(offspring))
+            return;
+
+        int old = find(hashes[i]);
+        if (--counts[old] == 0)
+            unlink(old);
+        else if (table[old] == i + 1)
+            table[old] = duplicateOf(i) + 1;
+        hashes[i] = hash;
+        pos = find(hash);
+        if (table[pos] == 0) // unless another chromosome has the same hash
+            table[pos] = i + 1;
+        counts[pos]++;
+        replaced.copyFrom(offspring);
+        ga.population.update(i);
+        replacements++;
+        ga.updateBest(replaced);
+    }
+
+    /**
+     * @return the position in the population of another chromosome with the
+     * same hash as the one at position i, which must exist.
+     */
+    private int duplicateOf(int i) {
+        int j = 0;
+        while (j == i || hashes[j] != hashes[i])
+            j++;
+        return j;
+    }
+
+    /**
+     * @return the position of a hash in the table, or of the empty entry
+     * where it would be.
+     */
+    private int find(long hash) {
+        int mask = table.length - 1;
+        int pos = (int) hash & mask;
+        while (table[pos] != 0 && hashes[table[pos] - 1] != hash)
+            pos = (pos + 1) & mask;
+        return pos;
+    }
+
+    /**
+     * Removes the hash of a table position, shifting back the following
+     * hashes of its probe sequence.
+     */
+    private void unlink(int pos) {
+        int mask = table.length - 1;
+        for (int next = (pos + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = (int) hashes[table[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - pos) & mask)) {
+                table[pos] = table[next];
+                counts[pos] = counts[next];
+                pos = next;
+            }
+        }
+        table[pos] = 0;
+        counts[pos] = 0;
+    }
+}
@@ -0,0 +1,54 @@
+package metaheuristics.ga;
+
+import java.util.random.RandomGenerator;
+
+public class UniformCrossover extends Crossover {
+
+    /**
+     * the bits of the probability of exchanging each gene, in units of
+     * 2^-{@value #PRECISION}
+     */
+    private final int bias;
+
+    /**
+     * the number of bits of {@link #bias}
+     */
+    private static final int PRECISION = 16;
+
+    UniformCrossover(double bias) {
+        super(bias);
+        this.bias = (int) Math.round(Math.min(Math.max(bias, 0.0), 1.0) * (1 << PRECISION));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Exchanges each gene with probability {@link #PARAM}, which the plain
+     * uniform crossover sets to 0.5.
+     */
+    @Override
+    public void recombine(Chromosome offspring1, Chromosome offspring2, RandomGenerator rng) {
+        for (int w = 0; w < offspring1.wordCount(); w++)
+            offspring1.exchangeWord(offspring2, w, mask(rng));
+    }
+
+    /**
+     * Draws a word whose bits are set independently with the probability
+     * {@link #bias}. Its binary digits are consumed from the least
+     * significant one: a one ORs a random word into the mask and a zero ANDs
+     * it, which halves the probability so far and adds the digit's half.
+     * Hence 0.5 costs a single random word and any bias at most
+     * {@value #PRECISION}.
+     *
+     * @param rng The random number generator.
+     * @return The mask.
+     */
+    private long mask(RandomGenerator rng) {
+        if (bias >= 1 << PRECISION)
+            return -1L;
+        long mask = 0L;
+        for (int b = bias == 0 ? PRECISION : Integer.numberOfTrailingZeros(bias); b < PRECISION; b++)
+            mask = ((bias >>> b) & 1) != 0 ? mask | rng.nextLong() : mask & rng.nextLong();
+        return mask;
+    }
+}
@@ -5,7 +5,15 @@ package metaheuristics.grasp;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 import problems.Evaluator;
 import solutions.Solution;
@@ -17,7 +25,7 @@ import solutions.Solution;
  * @param <E> Generic type of the element which composes the solution.
  * @author ccavellucci, fusberti
  */
-public abstract class AbstractGRASP<E> {
+public abstract class AbstractGRASP<E> implements Cloneable {
 
     protected final long MAXIMUM_RUNNING_TIME_SECONDS = 30 * 60; // 30 minutes
 
@@ -28,9 +36,9 @@ public abstract class AbstractGRASP<E> {
     public static boolean verbose = true;
 
     /**
-     * a random number generator
+     * a random number generator, which is not shared with other solvers
      */
-    static Random rng = new Random(42);
+    protected SplittableGenerator rng = new SplittableRandom(42);
 
     /**
      * the objective function being optimized
@@ -63,9 +71,16 @@ public abstract class AbstractGRASP<E> {
     protected Integer iterations;
 
     /**
-     * the Candidate List of elements to enter the solution.
+     * the number of workers running the GRASP iterations concurrently.
      */
-    protected ArrayList<E> CL;
+    protected int parallelism = 1;
+
+    /**
+     * the Candidate List of elements to enter the solution. Its order is not
+     * meaningful, so that it can be a set removing an element in O(1), as
+     * {@link structures.IntIndexedSet}.
+     */
+    protected List<E> CL;
 
     /**
      * the Restricted Candidate List of elements to enter the solution.
@@ -77,15 +92,15 @@ public abstract class AbstractGRASP<E> {
      * feasible solution by selecting in a greedy-random fashion, candidate
      * elements to enter the solution.
      */
-    public final ConstructiveHeuristic<E> Heuristic;
+    public ConstructiveHeuristic<E> Heuristic;
 
     /**
-     * Creates the Candidate List, which is an ArrayList of candidate elements
+     * Creates the Candidate List, which is a List of candidate elements
      * that can enter a solution.
      *
      * @return The Candidate List.
      */
-    public abstract ArrayList<E> makeCL();
+    public abstract List<E> makeCL();
 
     /**
      * Creates the Restricted Candidate List, which is an ArrayList of the
@@ -127,6 +142,18 @@ public abstract class AbstractGRASP<E> {
      */
     protected abstract Evaluator<E> initEvaluator(String filename) throws IOException;
 
+    /**
+     * Makes the solver use another evaluator, as done for each worker of a
+     * parallel GRASP. A subclass keeping other references to the evaluator,
+     * or state depending on it, must override this method to rebind them, so
+     * that no worker ever uses the evaluator of another one.
+     *
+     * @param evaluator The evaluator to be used from now on.
+     */
+    protected void bindEvaluator(Evaluator<E> evaluator) {
+        ObjFunction = evaluator;
+    }
+
     /**
      * Constructor for the AbstractGRASP class.
      *
@@ -150,18 +177,78 @@ public abstract class AbstractGRASP<E> {
             this.Heuristic = null; // will never occur
     }
 
+    /**
+     * Sets how many workers run the GRASP iterations. Each worker has its own
+     * candidate lists, solution, constructive heuristic, evaluator state and
+     * random number generator, and they only share the best solution found.
+     *
+     * @param parallelism The number of workers, or 1 for a sequential GRASP.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the random number generator of the solver, so that solvers running
+     * in the same JVM can have independent and reproducible seeds. The
+     * generators of the workers are split from it.
+     *
+     * @param rng The random number generator.
+     */
+    public void setRandomGenerator(SplittableGenerator rng) {
+        this.rng = rng;
+    }
+
     /**
      * The GRASP mainframe. It consists of a loop, in which each iteration goes
      * through the constructive heuristic and local search. The best solution is
-     * returned as result.
+     * returned as result. When {@link #parallelism} is greater than one, the
+     * iterations are shared among that many workers, and the solution of this
+     * solver is then a copy of the best one.
      *
      * @return The best feasible solution obtained throughout all iterations.
      */
     public Solution<E> solve() {
         long startTime = System.currentTimeMillis();
-        bestSol = createEmptySol();
+        AtomicInteger nextIteration = new AtomicInteger();
+        AtomicReference<Solution<E>> incumbent = new AtomicReference<>(createEmptySol());
+
+        if (parallelism <= 1)
+            iterate(nextIteration, incumbent, startTime);
+        else {
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int w = 0; w < parallelism; w++) {
+                    AbstractGRASP<E> worker = newWorker(rng.split());
+                    workers.add(executor.submit(() -> worker.iterate(nextIteration, incumbent, startTime)));
+                }
+                for (Future<?> worker : workers)
+                    worker.get();
+                sol = incumbent.get().clone();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        return bestSol = incumbent.get();
+    }
+
+    /**
+     * Runs GRASP iterations until all of them have been taken, publishing
+     * every improvement to the shared best solution.
+     *
+     * @param nextIteration The counter of the iterations already taken.
+     * @param incumbent     The best solution found by any worker.
+     * @param startTime     The time the GRASP started, in milliseconds.
+     */
+    protected void iterate(AtomicInteger nextIteration, AtomicReference<Solution<E>> incumbent, long startTime) {
         int interval = iterations / 10;
-        for (int i = 0; i < iterations; i++) {
+        for (int i = nextIteration.getAndIncrement(); i < iterations; i = nextIteration.getAndIncrement()) {
             double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
             // if (verbose && totalTime % 60 == 0)
                 // System.out.println("CurrTime = " + totalTime + " s");
@@ -170,14 +257,41 @@ public abstract class AbstractGRASP<E> {
             localSearch();
             if (verbose && i % interval == 0)
                 System.out.println("(Iter. " + i + ") CurrSol = " + sol);
-            if (bestSol.cost > sol.cost) {
-                bestSol = sol.clone();
-                if (verbose)
-                    System.out.println("(Iter. " + i + ") BestSol = " + bestSol);
+            if (incumbent.get().cost > sol.cost) {
+                Solution<E> candidate = sol.clone();
+                if (incumbent.accumulateAndGet(candidate, (a, b) -> b.cost < a.cost ? b : a) == candidate) {
+                    bestSol = candidate;
+                    if (verbose)
+                        System.out.println("(Iter. " + i + ") BestSol = " + bestSol);
+                }
             }
         }
+    }
 
-        return bestSol;
+    /**
+     * Creates a worker for running GRASP iterations concurrently with this
+     * solver. The worker shares the parameters and the read-only problem
+     * instance, but has its own working state, including its own evaluator,
+     * bound through {@link #bindEvaluator}.
+     *
+     * @param rng The random number generator of the worker.
+     * @return A new worker.
+     */
+    @SuppressWarnings("unchecked")
+    protected AbstractGRASP<E> newWorker(SplittableGenerator rng) {
+        AbstractGRASP<E> worker;
+        try {
+            worker = (AbstractGRASP<E>) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        worker.bindEvaluator(ObjFunction.copy());
+        worker.Heuristic = Heuristic.copy(worker);
+        worker.rng = rng;
+        worker.parallelism = 1;
+        worker.CL = worker.RCL = null;
+        worker.sol = worker.bestSol = null;
+        return worker;
     }
 
     /**
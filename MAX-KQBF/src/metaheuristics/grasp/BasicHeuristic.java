@@ -1,7 +1,5 @@
 package metaheuristics.grasp;
 
-import java.util.ArrayList;
-
 public class BasicHeuristic<E> extends ConstructiveHeuristic<E> {
 
     /**
@@ -18,27 +16,32 @@ public class BasicHeuristic<E> extends ConstructiveHeuristic<E> {
         this.alpha = alpha;
     }
 
+    @Override
+    public BasicHeuristic<E> copy(AbstractGRASP<E> solver) {
+        return new BasicHeuristic<>(PARAM, solver);
+    }
+
     @Override
     public void newSolution() {
         SOLVER.CL = SOLVER.makeCL();
         SOLVER.RCL = SOLVER.makeRCL();
         SOLVER.sol = SOLVER.createEmptySol();
         SOLVER.cost = Double.POSITIVE_INFINITY;
-        ArrayList<Double> deltas = new ArrayList<>();
+        int[] positions = new int[SOLVER.CL.size()]; // the position in the CL of each RCL element
 
         /* Main loop, which repeats until the stopping criteria is reached. */
         while (!SOLVER.constructiveStopCriteria()) {
             double maxCost = Double.NEGATIVE_INFINITY, minCost = Double.POSITIVE_INFINITY;
-            SOLVER.cost = SOLVER.ObjFunction.evaluate(SOLVER.sol);
+            SOLVER.cost = SOLVER.sol.cost;
             SOLVER.updateCL();
 
             /*
              * Explore all candidate elements to enter the solution, saving the
              * highest and lowest cost variation achieved by the candidates.
              */
-            for (E e : SOLVER.CL) {
-                Double deltaCost = SOLVER.ObjFunction.evaluateInsertionCost(e, SOLVER.sol);
-                deltas.add(deltaCost);
+            evaluateCL();
+            for (int i = 0; i < SOLVER.CL.size(); i++) {
+                double deltaCost = deltas[i];
                 if (deltaCost < minCost)
                     minCost = deltaCost;
                 if (deltaCost > maxCost)
@@ -49,19 +52,17 @@ public class BasicHeuristic<E> extends ConstructiveHeuristic<E> {
              * Among all candidates, insert into the RCL those with the highest
              * performance using parameter alpha as threshold.
              */
-            for (int i = 0; i < SOLVER.CL.size(); i++) {
-                Double deltaCost = deltas.get(i);
-                if (deltaCost <= minCost + alpha * (maxCost - minCost))
+            for (int i = 0; i < SOLVER.CL.size(); i++)
+                if (deltas[i] <= minCost + alpha * (maxCost - minCost)) {
+                    positions[SOLVER.RCL.size()] = i;
                     SOLVER.RCL.add(SOLVER.CL.get(i));
-            }
+                }
 
             /* Choose a candidate randomly from the RCL */
             if (SOLVER.RCL.size() == 0) break;
-            int rndIndex = AbstractGRASP.rng.nextInt(SOLVER.RCL.size());
-            SOLVER.sol.add(SOLVER.CL.remove(rndIndex));
-            SOLVER.ObjFunction.evaluate(SOLVER.sol);
+            int rndIndex = SOLVER.rng.nextInt(SOLVER.RCL.size());
+            SOLVER.ObjFunction.applyInsertion(SOLVER.CL.remove(positions[rndIndex]), SOLVER.sol);
             SOLVER.RCL.clear();
-            deltas.clear();
         }
     }
 }
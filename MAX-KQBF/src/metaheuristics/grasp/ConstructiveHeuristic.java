@@ -10,10 +10,35 @@ public abstract class ConstructiveHeuristic<E> {
 
     public final double PARAM;
 
+    /**
+     * the insertion cost of each element of the CL, in the same order
+     */
+    protected double[] deltas = new double[0];
+
     public ConstructiveHeuristic(double param, AbstractGRASP<E> solver) {
         PARAM = param;
         SOLVER = solver;
     }
 
     public abstract void newSolution();
+
+    /**
+     * Evaluates the insertion cost of each element of the CL into the current
+     * solution into {@link #deltas}, through
+     * {@link problems.Evaluator#evaluateInsertionCosts}.
+     */
+    protected void evaluateCL() {
+        if (deltas.length < SOLVER.CL.size())
+            deltas = new double[SOLVER.CL.size()];
+        SOLVER.ObjFunction.evaluateInsertionCosts(SOLVER.CL, SOLVER.sol, deltas);
+    }
+
+    /**
+     * Creates a heuristic with the same parameter, building the solutions of
+     * another solver.
+     *
+     * @param solver The solver whose solutions will be built.
+     * @return The new heuristic.
+     */
+    public abstract ConstructiveHeuristic<E> copy(AbstractGRASP<E> solver);
 }
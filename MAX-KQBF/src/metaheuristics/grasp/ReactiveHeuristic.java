@@ -28,7 +28,7 @@ public class ReactiveHeuristic<E> extends BasicHeuristic<E> {
         prefixSum[0] = pdf[0];
         for (int i = 1; i < n_alpha; i++)
             prefixSum[i] = prefixSum[i - 1] + pdf[i];
-        double random = AbstractGRASP.rng.nextDouble();
+        double random = SOLVER.rng.nextDouble();
         alphaIndex = -(Arrays.binarySearch(prefixSum, random) + 1);
         alpha = alphas[alphaIndex];
     }
@@ -43,6 +43,11 @@ public class ReactiveHeuristic<E> extends BasicHeuristic<E> {
             pdf[i] = (-SOLVER.cost / solSum[i] * solCount[i]) / denominator;
     }
 
+    @Override
+    public ReactiveHeuristic<E> copy(AbstractGRASP<E> solver) {
+        return new ReactiveHeuristic<>(PARAM, solver);
+    }
+
     @Override
     public void newSolution() {
         chooseAlpha();
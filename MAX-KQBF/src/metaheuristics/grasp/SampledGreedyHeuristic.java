@@ -12,6 +12,11 @@ public class SampledGreedyHeuristic<E> extends ConstructiveHeuristic<E> {
         this.p = (int) p;
     }
 
+    @Override
+    public SampledGreedyHeuristic<E> copy(AbstractGRASP<E> solver) {
+        return new SampledGreedyHeuristic<>(PARAM, solver);
+    }
+
     @Override
     public void newSolution() {
         SOLVER.CL = SOLVER.makeCL();
@@ -21,30 +26,30 @@ public class SampledGreedyHeuristic<E> extends ConstructiveHeuristic<E> {
 
         /* Main loop, which repeats until the stopping criteria is reached. */
         while (!SOLVER.constructiveStopCriteria()) {
-            SOLVER.cost = SOLVER.ObjFunction.evaluate(SOLVER.sol);
+            SOLVER.cost = SOLVER.sol.cost;
             SOLVER.updateCL();
 
             // Explore min(p, |CL|) candidate elements to enter the solution.
-            E minE = null;
+            int minIndex = -1;
             int sampleSize = Math.min(p, SOLVER.CL.size());
             double minCost = Double.POSITIVE_INFINITY;
             for (int i = 0; i < sampleSize; i++) {
-                E e = SOLVER.CL.remove(AbstractGRASP.rng.nextInt(SOLVER.CL.size()));
+                E e = SOLVER.CL.remove(SOLVER.rng.nextInt(SOLVER.CL.size()));
                 SOLVER.RCL.add(e);
                 double delta = SOLVER.ObjFunction.evaluateInsertionCost(e, SOLVER.sol);
                 if (delta < minCost) {
-                    minE = e;
+                    minIndex = i;
                     minCost = delta;
                 }
             }
 
             // Among all candidates, chose the smallest one to insert.
             if (SOLVER.RCL.size() == 0) break;
-            SOLVER.sol.add(minE);
-            SOLVER.RCL.remove(minE);
-            SOLVER.CL.addAll(SOLVER.RCL); // put the not chosen back
+            SOLVER.ObjFunction.applyInsertion(SOLVER.RCL.get(minIndex), SOLVER.sol);
+            for (int i = 0; i < SOLVER.RCL.size(); i++)
+                if (i != minIndex)
+                    SOLVER.CL.add(SOLVER.RCL.get(i)); // put the not chosen back
             SOLVER.RCL.clear();
-            SOLVER.ObjFunction.evaluate(SOLVER.sol);
         }
     }
 }
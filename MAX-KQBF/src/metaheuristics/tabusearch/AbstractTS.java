@@ -1,9 +1,10 @@
 package metaheuristics.tabusearch;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 import problems.Evaluator;
 import solutions.Solution;
@@ -26,9 +27,9 @@ public abstract class AbstractTS<E> {
     public static boolean verbose = true;
 
     /**
-     * a random number generator
+     * a random number generator, which is not shared with other solvers
      */
-    static Random rng = new Random(42);
+    protected SplittableGenerator rng = new SplittableRandom(42);
 
     /**
      * the objective function being optimized
@@ -66,9 +67,11 @@ public abstract class AbstractTS<E> {
     public final int tenure;
 
     /**
-     * the Candidate List of elements to enter the solution.
+     * the Candidate List of elements to enter the solution. Its order is not
+     * meaningful, so that it can be a set removing an element in O(1), as
+     * {@link structures.IntIndexedSet}.
      */
-    protected ArrayList<E> CL;
+    protected List<E> CL;
 
     /**
      * the Restricted Candidate List of elements to enter the solution.
@@ -78,7 +81,7 @@ public abstract class AbstractTS<E> {
     /**
      * the Tabu List of elements to enter the solution.
      */
-    protected ArrayDeque<E> TL;
+    protected TabuList<E> TL;
 
     /**
      * the current tabu search iteration.
@@ -86,12 +89,12 @@ public abstract class AbstractTS<E> {
     protected int iter;
 
     /**
-     * Creates the Candidate List, which is an ArrayList of candidate elements
+     * Creates the Candidate List, which is a List of candidate elements
      * that can enter a solution.
      *
      * @return The Candidate List.
      */
-    public abstract ArrayList<E> makeCL();
+    public abstract List<E> makeCL();
 
     /**
      * Creates the Restricted Candidate List, which is an ArrayList of the best
@@ -102,13 +105,13 @@ public abstract class AbstractTS<E> {
     public abstract ArrayList<E> makeRCL();
 
     /**
-     * Creates the Tabu List, which is an ArrayDeque of the Tabu
-     * candidate elements. The number of iterations a candidate
-     * is considered tabu is given by the Tabu Tenure {@link #tenure}
+     * Creates the Tabu List, which records the Tabu candidate elements.
+     * The number of iterations a candidate is considered tabu is given
+     * by the Tabu Tenure {@link #tenure}
      *
      * @return The Tabu List.
      */
-    public abstract ArrayDeque<E> makeTL();
+    public abstract TabuList<E> makeTL();
 
     /**
      * Updates the Candidate List according to the incumbent solution
@@ -155,6 +158,16 @@ public abstract class AbstractTS<E> {
         this.iterations = iterations;
     }
 
+    /**
+     * Sets the random number generator of the solver, so that solvers running
+     * in the same JVM can have independent and reproducible seeds.
+     *
+     * @param rng The random number generator.
+     */
+    public void setRandomGenerator(SplittableGenerator rng) {
+        this.rng = rng;
+    }
+
     /**
      * The TS constructive heuristic, which is responsible for building a
      * feasible solution by selecting in a greedy fashion, candidate
@@ -165,39 +178,43 @@ public abstract class AbstractTS<E> {
         RCL = makeRCL();
         sol = createEmptySol();
         cost = Double.POSITIVE_INFINITY;
+        double[] deltas = new double[CL.size()];
+        int[] positions = new int[CL.size()]; // the position in the CL of each RCL element
 
         /* Main loop, which repeats until the stopping criteria is reached. */
         while (!constructiveStopCriteria()) {
             double minCost = Double.POSITIVE_INFINITY;
             cost = sol.cost;
             updateCL();
+            if (deltas.length < CL.size()) {
+                deltas = new double[CL.size()];
+                positions = new int[CL.size()];
+            }
 
             /*
              * Explore all candidate elements to enter the solution, saving the
-             * highest and lowest cost variation achieved by the candidates.
+             * lowest cost variation achieved by the candidates.
              */
-            for (E c : CL) {
-                Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
-                if (deltaCost < minCost)
-                    minCost = deltaCost;
-            }
+            ObjFunction.evaluateInsertionCosts(CL, sol, deltas);
+            for (int i = 0; i < CL.size(); i++)
+                if (deltas[i] < minCost)
+                    minCost = deltas[i];
 
             /*
              * Among all candidates, insert into the RCL those with the highest
              * performance.
              */
-            for (E c : CL) {
-                Double deltaCost = ObjFunction.evaluateInsertionCost(c, sol);
-                if (deltaCost == minCost)
-                    RCL.add(c);
-            }
+            for (int i = 0; i < CL.size(); i++)
+                if (deltas[i] == minCost) {
+                    positions[RCL.size()] = i;
+                    RCL.add(CL.get(i));
+                }
 
             /* Choose a candidate randomly from the RCL */
             if (RCL.size() == 0)
                 break;
             int rndIndex = rng.nextInt(RCL.size());
-            sol.add(CL.remove(rndIndex));
-            ObjFunction.evaluate(sol);
+            ObjFunction.applyInsertion(CL.remove(positions[rndIndex]), sol);
             RCL.clear();
         }
     }
@@ -225,7 +242,7 @@ public abstract class AbstractTS<E> {
             if (verbose && iter % interval == 0)
                 System.out.println("(Iter. " + iter + ") CurrSol = " + sol);
             if (bestSol.cost > sol.cost) {
-                bestSol = new Solution<>(sol);
+                bestSol = sol.clone();
                 if (verbose)
                     System.out.println("(Iter. " + iter + ") BestSol = " + bestSol);
             }
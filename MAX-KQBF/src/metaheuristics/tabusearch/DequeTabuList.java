@@ -0,0 +1,61 @@
+package metaheuristics.tabusearch;
+
+import java.util.ArrayDeque;
+
+/**
+ * Tabu List kept as an ArrayDeque of the elements moved in the last
+ * iterations. Each iteration pushes two entries (the element that left and
+ * the one that entered the solution, or a fake element in their place), so an
+ * element is tabu for {@code tenure} iterations after being moved, regardless
+ * of the direction of the move. Testing an element takes O(tenure).
+ *
+ * @param <E> Generic type of the candidate to enter the solution.
+ */
+public class DequeTabuList<E> implements TabuList<E> {
+
+    private final ArrayDeque<E> TL;
+
+    private final E fake;
+
+    /**
+     * @param tenure The Tabu tenure parameter.
+     * @param fake   An element which never takes part in a solution, used to
+     *               pad the list.
+     */
+    public DequeTabuList(int tenure, E fake) {
+        this.TL = new ArrayDeque<>(2 * tenure);
+        this.fake = fake;
+        for (int i = 0; i < 2 * tenure; i++)
+            TL.add(fake);
+    }
+
+    @Override
+    public boolean isTabuIn(E elem) {
+        return TL.contains(elem);
+    }
+
+    @Override
+    public boolean isTabuOut(E elem) {
+        return TL.contains(elem);
+    }
+
+    @Override
+    public void addMove(E in, E out) {
+        TL.poll();
+        TL.add(out != null ? out : fake);
+        TL.poll();
+        TL.add(in != null ? in : fake);
+    }
+
+    /**
+     * {@inheritDoc} As when the list was an ArrayDeque emptied by its clear(),
+     * it is not padded again afterwards: each iteration then polls the entry
+     * it adds for the element which left the solution, so the deque keeps a
+     * single entry, and only the element which entered the solution in the
+     * last iteration is tabu, for one iteration.
+     */
+    @Override
+    public void clear() {
+        TL.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package metaheuristics.tabusearch;
+
+import java.util.Arrays;
+
+/**
+ * Tabu List kept as, for each element of the domain, the last iteration in
+ * which moving it back is still tabu. Testing an element takes O(1), and the
+ * number of iterations an element is forbidden to re-enter the solution after
+ * leaving it (tenureIn) may differ from the number of iterations it is
+ * forbidden to leave the solution after entering it (tenureOut). With equal
+ * tenures it forbids the same moves as a {@link DequeTabuList}, until it is
+ * cleared: the tenures are kept by {@link #clear()}, while a cleared
+ * DequeTabuList only forbids undoing the last move.
+ */
+public class IndexedTabuList implements TabuList<Integer> {
+
+    /**
+     * the last iteration in which each element is forbidden to enter the
+     * solution.
+     */
+    private final int[] tabuInUntil;
+
+    /**
+     * the last iteration in which each element is forbidden to leave the
+     * solution.
+     */
+    private final int[] tabuOutUntil;
+
+    /**
+     * the tenures of the elements which left and entered the solution.
+     */
+    private final int tenureIn, tenureOut;
+
+    /**
+     * the number of moves recorded so far.
+     */
+    private int iteration = 0;
+
+    /**
+     * @param size      The size of the domain.
+     * @param tenureIn  The number of iterations an element which left the
+     *                  solution is forbidden to enter it again.
+     * @param tenureOut The number of iterations an element which entered the
+     *                  solution is forbidden to leave it again.
+     */
+    public IndexedTabuList(int size, int tenureIn, int tenureOut) {
+        this.tabuInUntil = new int[size];
+        this.tabuOutUntil = new int[size];
+        this.tenureIn = tenureIn;
+        this.tenureOut = tenureOut;
+        Arrays.fill(tabuInUntil, -1);
+        Arrays.fill(tabuOutUntil, -1);
+    }
+
+    @Override
+    public boolean isTabuIn(Integer elem) {
+        return iteration <= tabuInUntil[elem];
+    }
+
+    @Override
+    public boolean isTabuOut(Integer elem) {
+        return iteration <= tabuOutUntil[elem];
+    }
+
+    @Override
+    public void addMove(Integer in, Integer out) {
+        if (out != null)
+            tabuInUntil[out] = iteration + tenureIn;
+        if (in != null)
+            tabuOutUntil[in] = iteration + tenureOut;
+        iteration++;
+    }
+
+    /**
+     * {@inheritDoc} The tenures are kept.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(tabuInUntil, -1);
+        Arrays.fill(tabuOutUntil, -1);
+        iteration = 0;
+    }
+}
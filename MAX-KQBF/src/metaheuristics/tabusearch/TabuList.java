@@ -0,0 +1,45 @@
+package metaheuristics.tabusearch;
+
+/**
+ * The short-term memory of a Tabu Search. It records the elements moved in
+ * the last iterations and tells which moves are forbidden (tabu) because they
+ * would undo one of them.
+ *
+ * @param <E> Generic type of the candidate to enter the solution.
+ */
+public interface TabuList<E> {
+
+    enum TabuListType {
+        Deque, Indexed
+    }
+
+    /**
+     * Tells whether an element is forbidden to enter the solution.
+     *
+     * @param elem the element under consideration for insertion.
+     * @return true if inserting the element is tabu.
+     */
+    boolean isTabuIn(E elem);
+
+    /**
+     * Tells whether an element is forbidden to leave the solution.
+     *
+     * @param elem the element under consideration for removal.
+     * @return true if removing the element is tabu.
+     */
+    boolean isTabuOut(E elem);
+
+    /**
+     * Records the move performed in the current iteration. It must be called
+     * exactly once per iteration, even when no move was performed.
+     *
+     * @param in  the element that entered the solution, or null if none did.
+     * @param out the element that left the solution, or null if none did.
+     */
+    void addMove(E in, E out);
+
+    /**
+     * Forgets all the recorded moves, as when the search restarts.
+     */
+    void clear();
+}
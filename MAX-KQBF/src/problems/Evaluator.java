@@ -1,5 +1,7 @@
 package problems;
 
+import java.util.List;
+
 import solutions.Solution;
 
 /**
@@ -21,6 +23,26 @@ public interface Evaluator<E> {
      */
     Integer getDomainSize();
 
+    /**
+     * Tells whether every cost variation is an integer, as when the objective
+     * function has integer coefficients, so that they are free from rounding
+     * errors.
+     *
+     * @return true if all the costs are integers.
+     */
+    default boolean hasIntegralCosts() {
+        return false;
+    }
+
+    /**
+     * Creates an evaluator for the same problem instance, sharing its
+     * read-only data but with its own working state, so that both can be used
+     * concurrently by different threads.
+     *
+     * @return a new evaluator for the same problem instance.
+     */
+    Evaluator<E> copy();
+
     /**
      * The evaluating function is responsible for returning the mapping value of
      * a solution.
@@ -42,6 +64,20 @@ public interface Evaluator<E> {
      */
     Double evaluateInsertionCost(E elem, Solution<E> sol);
 
+    /**
+     * Evaluates the cost variation of inserting each of some elements into a
+     * solution, as {@link #evaluateInsertionCost} does for one of them.
+     *
+     * @param elems the elements under consideration for insertion.
+     * @param sol   the solution for which the insertions are being evaluated.
+     * @param costs the array receiving the cost variation of each element, in
+     *              the same order.
+     */
+    default void evaluateInsertionCosts(List<E> elems, Solution<E> sol, double[] costs) {
+        for (int k = 0; k < elems.size(); k++)
+            costs[k] = evaluateInsertionCost(elems.get(k), sol);
+    }
+
     /**
      * Evaluates the cost variation of removing an element into a solution
      * according to an objective function.
@@ -66,4 +102,53 @@ public interface Evaluator<E> {
      * @return the cost variation resulting from the elements exchange.
      */
     Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
+
+    /**
+     * Inserts an element into a solution, updating the solution cost (and any
+     * other attribute kept by the solution) accordingly. The default
+     * implementation re-evaluates the whole solution, evaluators able to
+     * update it from the cost variation should override it.
+     *
+     * @param elem the element being inserted.
+     * @param sol  the solution receiving the element.
+     * @return the cost variation resulting from the element insertion.
+     */
+    default Double applyInsertion(E elem, Solution<E> sol) {
+        Double cost = sol.cost;
+        sol.add(elem);
+        return evaluate(sol) - cost;
+    }
+
+    /**
+     * Removes an element from a solution, updating the solution cost (and any
+     * other attribute kept by the solution) accordingly.
+     *
+     * @param elem the element being removed.
+     * @param sol  the solution losing the element.
+     * @return the cost variation resulting from the element removal.
+     * @see #applyInsertion(Object, Solution)
+     */
+    default Double applyRemoval(E elem, Solution<E> sol) {
+        Double cost = sol.cost;
+        sol.remove(elem);
+        return evaluate(sol) - cost;
+    }
+
+    /**
+     * Exchanges an element of a solution (elemOut) for another one (elemIn),
+     * updating the solution cost (and any other attribute kept by the
+     * solution) accordingly.
+     *
+     * @param elemIn  the element entering the solution.
+     * @param elemOut the element leaving the solution.
+     * @param sol     the solution being modified.
+     * @return the cost variation resulting from the elements exchange.
+     * @see #applyInsertion(Object, Solution)
+     */
+    default Double applyExchange(E elemIn, E elemOut, Solution<E> sol) {
+        Double cost = sol.cost;
+        sol.remove(elemOut);
+        sol.add(elemIn);
+        return evaluate(sol) - cost;
+    }
 }
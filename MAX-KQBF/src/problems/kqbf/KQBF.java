@@ -3,20 +3,48 @@ package problems.kqbf;
 import problems.qbf.QBF_Inverse;
 import solutions.KSolution;
 import solutions.Solution;
+import structures.IndexedMinHeap;
+import structures.IntIndexedSet;
 
 import java.io.*;
+import java.util.Arrays;
+import java.util.Comparator;
 
 public class KQBF extends QBF_Inverse {
 
     /**
      * The vector W of weights for the KQBF
      */
-    public Double[] W;
+    public double[] W;
 
     /**
      * The maximum capacity for the KQBF
      */
-    public Double W_max;
+    public double W_max;
+
+    /**
+     * The elements sorted by increasing weight, and their weights in that
+     * order, so that the elements fitting into a capacity are a prefix of it.
+     */
+    private final int[] byWeight;
+    private final double[] sortedW;
+
+    /**
+     * The position of each element in {@link #byWeight}.
+     */
+    private final int[] weightRank;
+
+    /**
+     * The ranks by weight of the elements of a solution, used by
+     * {@link #localSearch(KSolution, int)}.
+     */
+    private final int[] outRanks;
+
+    /**
+     * the heap of elements ordered by contribution per unit of weight used by
+     * {@link #repair(KSolution, boolean)}, allocated on its first use.
+     */
+    private IndexedMinHeap ratios;
 
     /**
      * Constructor for the KQBF class.
@@ -27,6 +55,39 @@ public class KQBF extends QBF_Inverse {
      */
     public KQBF(String filename) throws IOException {
         super(filename);
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingDouble(i -> W[i])); // stable, ties keep the index order
+        byWeight = new int[size];
+        sortedW = new double[size];
+        weightRank = new int[size];
+        for (int r = 0; r < size; r++) {
+            byWeight[r] = order[r];
+            sortedW[r] = W[order[r]];
+            weightRank[order[r]] = r;
+        }
+        outRanks = new int[size];
+    }
+
+    /**
+     * Constructor for a KQBF sharing the coefficients, weights and capacity of
+     * another one.
+     *
+     * @param other The KQBF whose instance data is shared.
+     */
+    protected KQBF(KQBF other) {
+        super(other);
+        W = other.W;
+        W_max = other.W_max;
+        byWeight = other.byWeight;
+        sortedW = other.sortedW;
+        weightRank = other.weightRank;
+        outRanks = new int[size];
+    }
+
+    @Override
+    public KQBF copy() {
+        return new KQBF(this);
     }
 
     @Override
@@ -38,7 +99,7 @@ public class KQBF extends QBF_Inverse {
         int _size = (int) stok.nval;
         stok.nextToken();
         W_max = stok.nval;
-        W = new Double[_size];
+        W = new double[_size];
 
         for (int i = 0; i < _size; i++) {
             stok.nextToken();
@@ -52,10 +113,250 @@ public class KQBF extends QBF_Inverse {
     @Override
     public Double evaluate(Solution<Integer> sol) {
         setVariables(sol);
-        KSolution<Integer> aux = (KSolution<Integer>) sol;
-        aux.weigth = 0.0;
-        for (int i = 0; i < size; i++)
-            aux.weigth += variables[i] * W[i];
+        updateWeight((KSolution<Integer>) sol);
         return sol.cost = evaluateQBF();
     }
+
+    /**
+     * Sets the weight of a solution from the domain variables.
+     *
+     * @param sol the solution loaded into the domain variables.
+     */
+    private void updateWeight(KSolution<Integer> sol) {
+        double weight = 0.0;
+        for (int i = 0; i < size; i++)
+            weight += variables[i] * W[i];
+        sol.weigth = weight;
+    }
+
+    /**
+     * Makes a solution fit into the knapsack, by removing the elements with the
+     * smallest contribution per unit of weight until it does. The ratios are
+     * kept in a heap, and those of the remaining elements are updated after
+     * each removal, since the contribution of an element depends on the others.
+     * Optionally, the residual capacity is then greedily filled with the
+     * elements with the largest positive ratios which still fit.
+     * <p>
+     * A solution which already fits, and is not being refilled, is left
+     * untouched and unevaluated, apart from its weight. Otherwise, its cost
+     * and weight are kept up to date through the repair, which takes
+     * O(n + k log k) per removal and O(n log n) per insertion.
+     *
+     * @param sol    the solution being repaired.
+     * @param refill whether the residual capacity is filled afterwards.
+     * @return true if the solution was evaluated, and possibly modified.
+     */
+    public boolean repair(KSolution<Integer> sol, boolean refill) {
+        double weight = 0.0;
+        for (int k = 0; k < sol.size(); k++)
+            weight += W[sol.elementAt(k)];
+        sol.weigth = weight;
+        if (weight <= W_max && !refill)
+            return false;
+
+        if (ratios == null)
+            ratios = new IndexedMinHeap(size);
+        evaluate(sol);
+
+        // Removes the elements which contribute the least per unit of weight:
+        ratios.clear();
+        for (int k = 0; k < sol.size(); k++) {
+            int i = sol.elementAt(k);
+            ratios.put(i, ratio(i));
+        }
+        while (sol.weigth > W_max) {
+            int out = ratios.poll(), row = out * size;
+            applyRemoval(out, sol);
+            for (int k = 0; k < sol.size(); k++) {
+                int j = sol.elementAt(k);
+                if (S[row + j] != 0)
+                    ratios.put(j, ratio(j));
+            }
+        }
+
+        // Inserts the elements which contribute the most per unit of weight:
+        if (refill) {
+            ratios.clear();
+            for (int i = 0; i < size; i++)
+                if (variables[i] == 0 && sol.weigth + W[i] <= W_max)
+                    ratios.put(i, -ratio(i));
+            while (!ratios.isEmpty() && ratios.key(ratios.peek()) < 0) {
+                int in = ratios.poll(), row = in * size;
+                if (sol.weigth + W[in] > W_max)
+                    continue;
+                applyInsertion(in, sol);
+                for (int j = 0; j < size; j++)
+                    if (S[row + j] != 0 && ratios.contains(j))
+                        ratios.put(j, -ratio(j));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives the contribution of an element per unit of weight. An element of
+     * zero weight has an infinite ratio with the sign of its contribution, or
+     * a zero ratio if it contributes nothing, instead of the NaN which would
+     * break the order of {@link #ratios}.
+     *
+     * @param i the element.
+     * @return the contribution of the element per unit of its weight.
+     */
+    private double ratio(int i) {
+        double ratio = evaluateContributionQBF(i) / W[i];
+        return Double.isNaN(ratio) ? 0.0 : ratio;
+    }
+
+    /**
+     * Counts the elements fitting into a capacity, which are the first ones
+     * in the order of increasing weight, by a binary search of their weights.
+     *
+     * @param capacity the capacity the elements must fit into.
+     * @return the number of elements whose weight is at most the capacity.
+     */
+    public int countFitting(double capacity) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedW[mid] <= capacity)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the element at a position of the order of increasing weight.
+     *
+     * @param r the position, or rank by weight.
+     * @return the element at that position.
+     */
+    public int elementByWeight(int r) {
+        return byWeight[r];
+    }
+
+    /**
+     * Returns the position of an element in the order of increasing weight.
+     *
+     * @param i the element.
+     * @return its rank by weight.
+     */
+    public int rankByWeight(int i) {
+        return weightRank[i];
+    }
+
+    /**
+     * Updates a candidate list holding the elements out of a solution among
+     * the first ones by weight, so that it holds those which still fit into
+     * the knapsack, the prefix given by {@link #countFitting(double)}. Only
+     * the elements between the previous prefix and the new one are visited,
+     * so the update takes O(log n) plus the change of the prefix. Elements
+     * leaving the solution must be put back into the list by the caller if
+     * they are in the previous prefix.
+     *
+     * @param sol     the solution, whose weight is up to date.
+     * @param CL      the candidate list being updated.
+     * @param fitting the length of the prefix the list currently holds.
+     * @return the length of the prefix the list now holds.
+     */
+    public int fittingCandidates(KSolution<Integer> sol, IntIndexedSet CL, int fitting) {
+        int target = countFitting(W_max - sol.weigth);
+        for (; fitting < target; fitting++)
+            if (!sol.containsElement(byWeight[fitting]))
+                CL.addInt(byWeight[fitting]);
+        for (; fitting > target; fitting--)
+            CL.removeInt(byWeight[fitting - 1]);
+        return target;
+    }
+
+    /**
+     * Improves a solution which fits into the knapsack by a best-improving
+     * local search, whose moves are the insertions, removals and exchanges
+     * keeping it in the knapsack. Each move is evaluated in O(1) from the
+     * contributions of the variables, and only the moves keeping the solution
+     * in the knapsack are visited: the insertions are a prefix of the
+     * elements sorted by weight, and the exchanges are swept in increasing
+     * weight of the element entering, the elements which can leave the
+     * solution for it being those whose weights are at least its weight minus
+     * the residual capacity. Applying a move takes O(n).
+     *
+     * @param sol      the solution being improved, whose cost and weight are
+     *                 kept up to date.
+     * @param maxMoves the maximum number of moves applied.
+     * @return the number of moves applied.
+     */
+    public int localSearch(KSolution<Integer> sol, int maxMoves) {
+        evaluate(sol);
+        int moves = 0;
+        while (moves < maxMoves) {
+            double minDeltaCost = -Double.MIN_VALUE, slack = W_max - sol.weigth;
+            int bestIn = -1, bestOut = -1, k = sol.size();
+            for (int j = 0; j < k; j++) {
+                int out = sol.elementAt(j);
+                outRanks[j] = weightRank[out];
+                double deltaCost = evaluateRemovalQBF(out);
+                if (deltaCost < minDeltaCost) {
+                    minDeltaCost = deltaCost;
+                    bestIn = -1;
+                    bestOut = out;
+                }
+            }
+            for (int r = 0, fitting = countFitting(slack); r < fitting; r++) {
+                int in = byWeight[r];
+                if (variables[in] == 1)
+                    continue;
+                double deltaCost = evaluateInsertionQBF(in);
+                if (deltaCost < minDeltaCost) {
+                    minDeltaCost = deltaCost;
+                    bestIn = in;
+                    bestOut = -1;
+                }
+            }
+            if (k > 0) {
+                // the elements leaving, by increasing weight, from the first one heavy enough:
+                Arrays.sort(outRanks, 0, k);
+                int first = 0, fitting = countFitting(slack + sortedW[outRanks[k - 1]]);
+                for (int r = 0; r < fitting; r++) {
+                    int in = byWeight[r];
+                    if (variables[in] == 1)
+                        continue;
+                    while (first < k && sortedW[r] - sortedW[outRanks[first]] > slack)
+                        first++;
+                    for (int j = first; j < k; j++) {
+                        int out = byWeight[outRanks[j]];
+                        double deltaCost = evaluateExchangeQBF(in, out);
+                        if (deltaCost < minDeltaCost) {
+                            minDeltaCost = deltaCost;
+                            bestIn = in;
+                            bestOut = out;
+                        }
+                    }
+                }
+            }
+            if (bestIn < 0 && bestOut < 0)
+                break;
+            if (bestIn < 0)
+                applyRemoval(bestOut, sol);
+            else if (bestOut < 0)
+                applyInsertion(bestIn, sol);
+            else
+                applyExchange(bestIn, bestOut, sol);
+            moves++;
+        }
+        return moves;
+    }
+
+    @Override
+    protected void flipElement(int i, Solution<Integer> sol) {
+        super.flipElement(i, sol);
+        KSolution<Integer> aux = (KSolution<Integer>) sol;
+        aux.weigth += variables[i] == 1 ? W[i] : -W[i];
+    }
+
+    @Override
+    protected void recompute(Solution<Integer> sol) {
+        super.recompute(sol);
+        updateWeight((KSolution<Integer>) sol);
+    }
 }
@@ -1,29 +1,26 @@
 package problems.kqbf.solvers;
 
+import metaheuristics.ga.Chromosome;
 import problems.Evaluator;
 import problems.kqbf.KQBF;
 import problems.qbf.solvers.GA_QBF;
 import solutions.KSolution;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
 
-class Contribution {
-    protected Double contribution;
-    protected Integer variable;
-
-    public Contribution(Double contribution, Integer variable) {
-        this.contribution = contribution;
-        this.variable = variable;
-    }
+public class GA_KQBF extends GA_QBF {
 
-    public Double getContribution() {
-        return contribution;
-    }
-}
+    /**
+     * whether the repair of an infeasible chromosome also fills the residual
+     * capacity of the knapsack.
+     */
+    public boolean refillRepair = false;
 
-public class GA_KQBF extends GA_QBF {
+    /**
+     * the maximum number of moves of the local search improving a chromosome,
+     * when the GA is memetic (see {@link #localSearchRate}).
+     */
+    public int localSearchMoves = 10;
 
     /**
      * Constructor for the GA_QBF class. The QBF objective function is passed as
@@ -58,90 +55,50 @@ public class GA_KQBF extends GA_QBF {
     }
 
     @Override
-    protected Chromosome generateRandomChromosome() {
-        Chromosome chromosome = new Chromosome();
-        for (int i = 0; i < chromosomeSize; i++)
-            chromosome.add(rng.nextInt(2));
+    protected void evaluateChromosome(Chromosome chromosome) {
         fixChromosome(chromosome); // make an invalid chromosome viable
-        return chromosome;
+        super.evaluateChromosome(chromosome);
     }
 
+    /**
+     * Makes a chromosome fit into the knapsack through
+     * {@link KQBF#repair(KSolution, boolean)}. When it had to be repaired, the
+     * repair also evaluates it, thus its fitness is set as well.
+     *
+     * @param chromosome The chromosome being made viable.
+     */
     protected void fixChromosome(Chromosome chromosome) {
-        var decodedChromosome = (KSolution<Integer>) decode(chromosome);
-        double currWeight = decodedChromosome.weigth;
-
-        // Se o peso do cromossomo ultrapassar o peso da mochila, remove alguns items em
-        // ordem ordem crescente de benefício/peso:
-        KQBF auxRef = ((KQBF) ObjFunction);
-        if (currWeight > auxRef.W_max) {
-            // Armazena os items que estão na mochila e seu benefício/peso:
-            ArrayList<Contribution> contributions = new ArrayList<>();
-            for (int i = 0; i < chromosomeSize; i++)
-                if (chromosome.get(i) == 1.0) {
-                    var contribution = auxRef.evaluateContributionQBF(i, decodedChromosome) / auxRef.W[i];
-                    contributions.add(new Contribution(contribution, i));
-                }
-
-            contributions.sort(Comparator.comparing(Contribution::getContribution)); // ordena em ordem crescente
-            // Remove os que menos contribuem até que o cromossomo seja viável:
-            while (currWeight > auxRef.W_max) {
-                var worstVar = contributions.remove(0);
-                chromosome.set(worstVar.variable, 0);
-                currWeight -= auxRef.W[worstVar.variable];
-            }
-        }
+        var solution = (KSolution<Integer>) decodeElements(chromosome);
+        if (((KQBF) evaluator()).repair(solution, refillRepair))
+            encode(solution, chromosome);
     }
 
+    /**
+     * Improves a chromosome through {@link KQBF#localSearch(KSolution, int)},
+     * with at most {@link #localSearchMoves} moves.
+     *
+     * @param chromosome The evaluated chromosome being improved.
+     */
     @Override
-    protected Population crossover(Population parents) {
-        Population offsprings = new Population();
-
-        for (int i = 0; i < popSize; i = i + 2) {
-            Chromosome parent1 = parents.get(i), parent2 = parents.get(i + 1);
-
-            if (parent1 == parent2) { // Save time as the offspring will be the same as the parents:
-                offsprings.add(parent1);
-                offsprings.add(parent2);
-                continue;
-            }
-
-            int crosspoint1 = rng.nextInt(chromosomeSize + 1);
-            int crosspoint2 = crosspoint1 + rng.nextInt((chromosomeSize + 1) - crosspoint1);
-
-            Chromosome offspring1 = new Chromosome(), offspring2 = new Chromosome();
-
-            for (int j = 0; j < chromosomeSize; j++)
-                if (j >= crosspoint1 && j < crosspoint2) {
-                    offspring1.add(parent2.get(j));
-                    offspring2.add(parent1.get(j));
-                } else {
-                    offspring1.add(parent1.get(j));
-                    offspring2.add(parent2.get(j));
-                }
-
-            // Make the invalid chromosomes viable:
-            fixChromosome(offspring1);
-            fixChromosome(offspring2);
-
-            offspring1.fitness = fitness(offspring1);
-            offspring2.fitness = fitness(offspring2);
-            offsprings.add(offspring1);
-            offsprings.add(offspring2);
-        }
-
-        return offsprings;
+    protected void improveChromosome(Chromosome chromosome) {
+        var solution = (KSolution<Integer>) decodeElements(chromosome);
+        if (((KQBF) evaluator()).localSearch(solution, localSearchMoves) > 0)
+            encode(solution, chromosome);
     }
 
-    protected Population mutate(Population offsprings) {
-        for (Chromosome c : offsprings) {
-            if (rng.nextDouble() < mutationRate) {
-                for (int locus = 0; locus < chromosomeSize; locus++)
-                    if (rng.nextDouble() < mutationRate / 10)
-                        mutateGene(c, locus);
-                fixChromosome(c); // make the invalid chromosomes viable
-                c.fitness = fitness(c);
-            }
-        }
-        return offsprings;
+    /**
+     * Writes an evaluated solution back into a chromosome, which takes its
+     * cost as fitness.
+     *
+     * @param solution   The solution.
+     * @param chromosome The chromosome decoded into the solution.
+     */
+    private void encode(KSolution<Integer> solution, Chromosome chromosome) {
+        for (int i = chromosome.nextSetBit(0); i >= 0; i = chromosome.nextSetBit(i + 1))
+            if (!solution.containsElement(i))
+                chromosome.set(i, false);
+        for (int k = 0; k < solution.size(); k++)
+            chromosome.set(solution.elementAt(k), true);
+        chromosome.fitness = -solution.cost;
     }
 }
@@ -2,6 +2,8 @@ package problems.kqbf.solvers;
 
 import java.io.IOException;
 
+import metaheuristics.ga.Chromosome;
+
 public class GA_KQBF_Adaptative_Mutation extends GA_KQBF {
 
     public static final double MULTIPLIER = 3.0; // how much the mutation will increase for below mean individuals
@@ -12,21 +14,14 @@ public class GA_KQBF_Adaptative_Mutation extends GA_KQBF {
 
     @Override
     protected Population mutate(Population offsprings) {
-        Double sumFitness = 0.0, meanFitness;
-        for (Chromosome c : offsprings)
-            sumFitness += c.fitness;
-        meanFitness = sumFitness / popSize;
+        double meanFitness = offsprings.meanFitness();
 
-        for (Chromosome c : offsprings) {
+        for (int i = 0; i < offsprings.size(); i++) {
+            Chromosome c = offsprings.get(i);
             var currMutationRate = c.fitness >= meanFitness ? mutationRate : mutationRate * MULTIPLIER;
-            if (rng.nextDouble() < currMutationRate) {
-                for (int locus = 0; locus < chromosomeSize; locus++)
-                    if (rng.nextDouble() < currMutationRate / 10)
-                        mutateGene(c, locus);
-                fixChromosome(c); // make the invalid chromosomes viable
-                c.fitness = fitness(c);
-            }
+            mutateChromosome(c, currMutationRate);
         }
+        evaluatePopulation(offsprings); // also makes the invalid chromosomes viable
 
         return offsprings;
     }
@@ -1,5 +1,7 @@
 package problems.kqbf.solvers;
 
+import metaheuristics.ga.IslandGA;
+import metaheuristics.ga.SteadyStateGA;
 import solutions.Solution;
 
 import java.io.IOException;
@@ -50,6 +52,64 @@ public class GA_KQBF_MAIN {
                     var fileName = INSTANCES_DIR + instance;
                     run_algorithm(new GA_KQBF_Adaptative_Mutation(population, mutation, fileName), fileName);
                 }
+
+        // Memetic GA, improving a fifth of the offsprings by local search:
+        System.out.println("----------------------------------- Memetic GA");
+        for (var instance : INSTANCE_LIST)
+            for (var population : POPULATION_LIST)
+                for (var mutation : MUTATION_LIST) {
+                    var fileName = INSTANCES_DIR + instance;
+                    var memetic = new GA_KQBF(population, mutation, fileName);
+                    memetic.localSearchRate = 0.2;
+                    run_algorithm(memetic, fileName);
+                }
+
+        // Steady-state GA:
+        System.out.println("----------------------------------- Steady-state GA");
+        for (var instance : INSTANCE_LIST)
+            for (var population : POPULATION_LIST)
+                for (var mutation : MUTATION_LIST) {
+                    var fileName = INSTANCES_DIR + instance;
+                    run_steady_state(new SteadyStateGA<>(new GA_KQBF(population, mutation, fileName)), fileName);
+                }
+
+        // Island model with the three methods:
+        System.out.println("----------------------------------- Island model");
+        for (var instance : INSTANCE_LIST) {
+            var fileName = INSTANCES_DIR + instance;
+            var islands = Arrays.asList(
+                    new GA_KQBF(POPULATION_LIST.get(0), MUTATION_LIST.get(0), fileName),
+                    new GA_KQBF_Uniform_Crossover(POPULATION_LIST.get(1), MUTATION_LIST.get(0), fileName),
+                    new GA_KQBF_Adaptative_Mutation(POPULATION_LIST.get(0), MUTATION_LIST.get(1), fileName));
+            run_islands(new IslandGA<>(islands, 50, IslandGA.Topology.Ring), fileName);
+        }
+    }
+
+    private static void run_islands(IslandGA<Integer> islandGA, String fileName) {
+        long startTime = System.currentTimeMillis();
+        System.out.println("\n\n=============================");
+        Solution<Integer> bestSolution = islandGA.solve();
+        long totalTime = System.currentTimeMillis() - startTime;
+        System.out.println("-----------------");
+        System.out.println("instance: " + fileName);
+        System.out.println("islands: " + islandGA.islands.size());
+        System.out.println("topology: " + islandGA.topology);
+        System.out.println("Best Solution Found: " + bestSolution);
+        System.out.println("Time = " + (double) totalTime / (double) 1000 + " seg");
+    }
+
+    private static void run_steady_state(SteadyStateGA<Integer> steadyStateGA, String fileName) {
+        long startTime = System.currentTimeMillis();
+        System.out.println("\n\n=============================");
+        Solution<Integer> bestSolution = steadyStateGA.solve();
+        long totalTime = System.currentTimeMillis() - startTime;
+        System.out.println("-----------------");
+        System.out.println("instance: " + fileName);
+        System.out.println("population: " + steadyStateGA.ga.popSize);
+        System.out.println("mutation: " + steadyStateGA.ga.mutationRate);
+        System.out.println("replacements: " + steadyStateGA.replacements);
+        System.out.println("Best Solution Found: " + bestSolution);
+        System.out.println("Time = " + (double) totalTime / (double) 1000 + " seg");
     }
 
     private static void run_algorithm(GA_KQBF geneticAlgo, String fileName) {
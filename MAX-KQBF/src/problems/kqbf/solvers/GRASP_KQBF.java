@@ -6,15 +6,21 @@ import problems.kqbf.KQBF;
 import problems.qbf.solvers.GRASP_QBF;
 import solutions.KSolution;
 import solutions.Solution;
+import structures.IntIndexedSet;
 
 import java.io.IOException;
-import java.util.Collections;
 
 public class GRASP_KQBF extends GRASP_QBF {
 
     public static final int iterations = 10000;
 
-    private final KQBF objFunction;
+    private KQBF objFunction;
+
+    /**
+     * The length of the prefix of the elements by increasing weight whose
+     * elements out of the solution are in the CL.
+     */
+    private int fitting;
 
     /**
      * Constructor for the GRASP_KQBF class. An inverse QBF objective function is
@@ -38,13 +44,40 @@ public class GRASP_KQBF extends GRASP_QBF {
         return new KQBF(filename);
     }
 
+    @Override
+    protected void bindEvaluator(Evaluator<Integer> evaluator) {
+        super.bindEvaluator(evaluator);
+        objFunction = (KQBF) evaluator;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The CL holds the elements which fit into the empty knapsack, and must
+     * be used with an empty solution.
+     */
+    @Override
+    public IntIndexedSet makeCL() {
+        IntIndexedSet CL = new IntIndexedSet(objFunction.getDomainSize());
+        fitting = objFunction.fittingCandidates(createEmptySol(), CL, 0);
+        return CL;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The CL is kept as the elements out of the solution which still fit into
+     * the knapsack, through {@link KQBF#fittingCandidates}.
+     */
     @Override
     public void updateCL() {
-        Double currWeight = ((KSolution<Integer>) sol).weigth;
-        CL.removeIf(c -> // if adding this item will overpass the capacity
-                objFunction.W[c] > objFunction.W_max - currWeight
-        );
-        Collections.shuffle(CL);
+        fitting = objFunction.fittingCandidates((KSolution<Integer>) sol, (IntIndexedSet) CL, fitting);
+    }
+
+    @Override
+    protected void returnToCL(int elem) {
+        if (objFunction.rankByWeight(elem) < fitting)
+            CL.add(elem);
     }
 
     @Override
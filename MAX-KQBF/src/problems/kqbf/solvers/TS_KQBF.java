@@ -1,10 +1,12 @@
 package problems.kqbf.solvers;
 
+import metaheuristics.tabusearch.TabuList;
 import problems.Evaluator;
 import problems.kqbf.KQBF;
 import problems.qbf.solvers.TS_QBF;
 import solutions.KSolution;
 import solutions.Solution;
+import structures.IntIndexedSet;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -27,6 +29,18 @@ public class TS_KQBF extends TS_QBF {
 
     protected final KQBF objFunction;
 
+    /**
+     * The length of the prefix of the elements by increasing weight whose
+     * elements out of the solution are in the CL.
+     */
+    private int fitting;
+
+    /**
+     * Marks the elements of the neighborhood being scanned, used by
+     * {@link #exchangeNeighborhood(List)}.
+     */
+    private final boolean[] inNeighborhood;
+
     /**
      * Constructor for the TS_KQBF class. An inverse QBF objective function is
      * passed as argument for the superclass constructor.
@@ -41,8 +55,28 @@ public class TS_KQBF extends TS_QBF {
      * @throws IOException necessary for I/O operations.
      */
     public TS_KQBF(int tenure, String filename, boolean stImproving) throws IOException {
-        super(tenure, iterations, filename, stImproving);
+        this(tenure, filename, stImproving, TabuList.TabuListType.Deque);
+    }
+
+    /**
+     * Constructor for the TS_KQBF class. An inverse QBF objective function is
+     * passed as argument for the superclass constructor.
+     *
+     * @param tenure      A double hyperparameter used by the constructive
+     *                    heuristics.
+     * @param filename    Name of the file for which the objective function
+     *                    parameters
+     *                    should be read.
+     * @param stImproving If should use the first-improving local search, or the
+     *                    best-improving.
+     * @param tlType      The Tabu List implementation to be used.
+     * @throws IOException necessary for I/O operations.
+     */
+    public TS_KQBF(int tenure, String filename, boolean stImproving, TabuList.TabuListType tlType)
+            throws IOException {
+        super(tenure, iterations, filename, stImproving, tlType);
         objFunction = (KQBF) ObjFunction;
+        inNeighborhood = new boolean[objFunction.getDomainSize()];
     }
 
     public double weight() {
@@ -54,11 +88,74 @@ public class TS_KQBF extends TS_QBF {
         return new KQBF(filename);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The CL holds the elements which fit into the empty knapsack, and must
+     * be used with an empty solution.
+     */
+    @Override
+    public IntIndexedSet makeCL() {
+        IntIndexedSet CL = new IntIndexedSet(objFunction.getDomainSize());
+        fitting = objFunction.fittingCandidates(createEmptySol(), CL, 0);
+        return CL;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The CL is kept as the elements out of the solution which still fit into
+     * the knapsack, through {@link KQBF#fittingCandidates}.
+     */
     @Override
     public void updateCL() {
-        Double currWeight = ((KSolution<Integer>) sol).weigth;
-        CL.removeIf(c -> // if adding this item will overpass the capacity
-        objFunction.W[c] > objFunction.W_max - currWeight);
+        fitting = objFunction.fittingCandidates((KSolution<Integer>) sol, (IntIndexedSet) CL, fitting);
+    }
+
+    @Override
+    protected void returnToCL(int elem) {
+        if (objFunction.rankByWeight(elem) < fitting)
+            CL.add(elem);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Here, the candidates to leave the solution are sorted by increasing
+     * weight, and the candidates to enter it are swept in increasing weight,
+     * so that each one is only exchanged with those heavy enough to keep the
+     * solution in the knapsack. Besides the neighborhood, they include the
+     * elements too heavy to be inserted which fit by an exchange, up to the
+     * residual capacity plus the weight of the heaviest element leaving. The
+     * latter are not sampled by {@link TS_KQBF_Probabilistic}.
+     */
+    @Override
+    protected int exchangeNeighborhood(List<Integer> Neighborhood) {
+        int k = sol.size();
+        for (int j = 0; j < k; j++)
+            scanOuts[j] = objFunction.rankByWeight(sol.elementAt(j));
+        Arrays.sort(scanOuts, 0, k);
+        for (int j = 0; j < k; j++)
+            scanOuts[j] = objFunction.elementByWeight(scanOuts[j]);
+        for (int in : Neighborhood)
+            inNeighborhood[in] = true;
+
+        double[] W = objFunction.W;
+        double slack = objFunction.W_max - ((KSolution<Integer>) sol).weigth;
+        int m = 0, first = 0, reach = objFunction.countFitting(slack + W[scanOuts[k - 1]]);
+        for (int r = 0; r < reach; r++) {
+            int in = objFunction.elementByWeight(r);
+            if (r < fitting ? !inNeighborhood[in] : sol.containsElement(in))
+                continue;
+            while (first < k && W[in] - W[scanOuts[first]] > slack)
+                first++;
+            scanIns[m] = in;
+            scanFrom[m++] = first;
+        }
+
+        for (int in : Neighborhood)
+            inNeighborhood[in] = false;
+        return m;
     }
 
     @Override
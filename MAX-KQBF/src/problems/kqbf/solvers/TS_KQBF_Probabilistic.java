@@ -1,8 +1,9 @@
 package problems.kqbf.solvers;
 
+import metaheuristics.tabusearch.TabuList;
+import structures.IntIndexedSet;
+
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 
 public class TS_KQBF_Probabilistic extends TS_KQBF {
     public TS_KQBF_Probabilistic(int tenure, String filename, boolean firstImproving)
@@ -10,6 +11,11 @@ public class TS_KQBF_Probabilistic extends TS_KQBF {
         super(tenure, filename, firstImproving);
     }
 
+    public TS_KQBF_Probabilistic(int tenure, String filename, boolean firstImproving, TabuList.TabuListType tlType)
+            throws IOException {
+        super(tenure, filename, firstImproving, tlType);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -20,10 +26,7 @@ public class TS_KQBF_Probabilistic extends TS_KQBF {
     public void neighborhoodMove() {
         updateCL();
         int sampled = Math.round((float) (CL.size() * 0.5));
-        ArrayList<Integer> sampledCL = new ArrayList<>(sampled);
-        Collections.shuffle(CL);
-        for (int i = 0; i < sampled; ++i)
-            sampledCL.add(CL.get(i));
-        _neighborhoodMove(sampledCL);
+        ((IntIndexedSet) CL).shufflePrefix(sampled, rng); // only the sampled half is shuffled
+        _neighborhoodMove(CL.subList(0, sampled));
     }
 }
@@ -1,8 +1,9 @@
 package problems.kqbf.solvers;
 
+import metaheuristics.tabusearch.TabuList;
+
 import java.util.*;
 import java.io.IOException;
-import java.util.stream.Collectors;
 
 public class TS_KQBF_Restart_Diversification extends TS_KQBF {
 
@@ -39,7 +40,12 @@ public class TS_KQBF_Restart_Diversification extends TS_KQBF {
     private final ArrayList<Tuple> FREQUENCY_MEMORY;
 
     public TS_KQBF_Restart_Diversification(int tenure, String filename, boolean stImproving) throws IOException {
-        super(tenure, filename, stImproving);
+        this(tenure, filename, stImproving, TabuList.TabuListType.Deque);
+    }
+
+    public TS_KQBF_Restart_Diversification(int tenure, String filename, boolean stImproving,
+                                           TabuList.TabuListType tlType) throws IOException {
+        super(tenure, filename, stImproving, tlType);
         FREQUENCY_MEMORY = new ArrayList<>(this.ObjFunction.getDomainSize());
         for (int i = 0; i < this.ObjFunction.getDomainSize(); i++)
             FREQUENCY_MEMORY.add(new Tuple(0, i));
@@ -65,12 +71,12 @@ public class TS_KQBF_Restart_Diversification extends TS_KQBF {
         RCL.clear();
         cost = Double.POSITIVE_INFINITY;
 
-        CL = (ArrayList<Integer>) FREQUENCY_MEMORY.stream().map(t -> t.Value).collect(Collectors.toList());
-        while (CL.size() > 0) {
-            sol.add(CL.remove(0));
-            ObjFunction.evaluate(sol);
-            updateCL();
-        }
+        CL = makeCL();
+        for (var t : FREQUENCY_MEMORY)
+            if (CL.remove((Integer) t.Value)) { // unless it no longer fits the knapsack
+                ObjFunction.applyInsertion(t.Value, sol);
+                updateCL();
+            }
         cost = sol.cost;
 
         // Reset the frequencies and reorder by variable name:
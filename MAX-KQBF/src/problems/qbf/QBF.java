@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StreamTokenizer;
 import java.util.Arrays;
+import java.util.List;
 
 import problems.Evaluator;
 import solutions.Solution;
@@ -31,14 +32,72 @@ public class QBF implements Evaluator<Integer> {
     public final Integer size;
 
     /**
-     * The array of numbers representing the domain.
+     * The array of numbers representing the domain. It should be changed
+     * through {@link #setVariables} or {@link #flipVariable}, so that the
+     * {@link #gains} are kept consistent with it.
      */
-    public final Double[] variables;
+    public final double[] variables;
 
     /**
-     * The matrix A of coefficients for the QBF f(x) = x'.A.x
+     * The matrix A of coefficients for the QBF f(x) = x'.A.x, stored in
+     * row-major order as a single contiguous array, i.e., a_{ij} is kept at
+     * position i * size + j.
      */
-    public Double[][] A;
+    public double[] A;
+
+    /**
+     * The symmetric matrix S = A + A' with a zeroed diagonal, in the same
+     * row-major layout as {@link #A}. Row i of S holds the coefficients that
+     * couple variable i to every other variable, so both the contribution of a
+     * variable and its update after a flip are contiguous scans.
+     */
+    protected double[] S;
+
+    /**
+     * The contribution of each variable to the QBF given the current domain
+     * variables, i.e., gains[i] = a_ii + \sum_{j != i}{x_j * (a_ij + a_ji)}. It
+     * is rebuilt lazily and then kept up to date in O(n) per flipped variable,
+     * which makes the insertion, removal and exchange deltas O(1) lookups.
+     */
+    protected final double[] gains;
+
+    /**
+     * Whether {@link #gains} mirrors the current domain variables.
+     */
+    protected boolean gainsUpdated = false;
+
+    /**
+     * Whether all the coefficients of {@link #A} are integers.
+     */
+    private final boolean integral;
+
+    /**
+     * The solution currently loaded into the domain variables and the
+     * {@link Solution#version()} it had when it was loaded.
+     */
+    private Solution<Integer> currSol = null;
+    private int currVersion;
+
+    /**
+     * Marks used for computing the difference between the domain variables and
+     * a solution being loaded.
+     */
+    private final int[] marks;
+    private int markEpoch = 0;
+
+    /**
+     * The number of moves applied through {@link #applyInsertion},
+     * {@link #applyRemoval} or {@link #applyExchange} after which the cost of
+     * the solution is fully recomputed, discarding any floating-point drift
+     * accumulated from the cost variations. A non-positive value disables the
+     * check.
+     */
+    public int driftCheckInterval = 0;
+
+    /**
+     * the number of moves applied since the last full recomputation.
+     */
+    private int movesSinceCheck = 0;
 
     /**
      * The constructor for QuadracticBinaryFunction class. The filename of the
@@ -51,19 +110,143 @@ public class QBF implements Evaluator<Integer> {
     public QBF(String filename) throws IOException {
         size = readInput(filename);
         variables = allocateVariables();
+        gains = allocateVariables();
+        marks = new int[size];
+        S = symmetrize(A, size);
+        boolean integral = true;
+        for (double a : A)
+            integral &= a == Math.rint(a);
+        this.integral = integral;
+    }
+
+    /**
+     * Creates a QBF sharing the coefficients of another one, but with its own
+     * domain variables and gains.
+     *
+     * @param other The QBF whose coefficients are shared.
+     */
+    protected QBF(QBF other) {
+        size = other.size;
+        A = other.A;
+        S = other.S;
+        integral = other.integral;
+        driftCheckInterval = other.driftCheckInterval;
+        variables = allocateVariables();
+        gains = allocateVariables();
+        marks = new int[size];
+    }
+
+    /**
+     * {@inheritDoc} This holds when all the coefficients of {@link #A} are
+     * integers.
+     */
+    @Override
+    public boolean hasIntegralCosts() {
+        return integral;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see problems.Evaluator#copy()
+     */
+    @Override
+    public QBF copy() {
+        return new QBF(this);
     }
 
     /**
      * Evaluates the value of a solution by transforming it into a vector. This
      * is required to perform the matrix multiplication which defines a QBF.
+     * Nothing is done if the solution is already loaded and was not modified
+     * since, and when it differs from the loaded one in fewer variables than
+     * it has elements, only those variables are flipped.
      *
      * @param sol the solution which will be evaluated.
      */
     public void setVariables(Solution<Integer> sol) {
-        resetVariables();
-        if (!sol.isEmpty())
-            for (Integer elem : sol)
-                variables[elem] = 1.0;
+        if (sol == currSol && sol.version() == currVersion)
+            return;
+
+        if (++markEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            markEpoch = 1;
+        }
+        int changes = 0;
+        for (int k = 0; k < sol.size(); k++) {
+            int elem = sol.elementAt(k);
+            marks[elem] = markEpoch;
+            if (variables[elem] == 0)
+                changes++;
+        }
+        for (int i = 0; i < size; i++)
+            if (variables[i] == 1 && marks[i] != markEpoch)
+                changes++;
+
+        if (gainsUpdated && changes <= sol.size()) {
+            for (int k = 0; k < sol.size(); k++)
+                if (variables[sol.elementAt(k)] == 0)
+                    flipVariable(sol.elementAt(k));
+            for (int i = 0; i < size; i++)
+                if (variables[i] == 1 && marks[i] != markEpoch)
+                    flipVariable(i);
+        } else if (changes > 0) {
+            resetVariables();
+            for (int k = 0; k < sol.size(); k++)
+                variables[sol.elementAt(k)] = 1.0;
+        }
+        currSol = sol;
+        currVersion = sol.version();
+    }
+
+    /**
+     * Loads a solution into the domain variables and brings the contributions
+     * of the variables up to date. Evaluating the moves of that solution then
+     * only reads from this evaluator, so it can be done by several threads at
+     * once, until the solution or the evaluator is modified.
+     *
+     * @param sol the solution whose moves will be evaluated.
+     */
+    public void load(Solution<Integer> sol) {
+        setVariables(sol);
+        updateGains();
+    }
+
+    /**
+     * Flips the value of a domain variable, updating the contribution of every
+     * other variable accordingly. This takes O(n) when the gains are being
+     * maintained, and O(1) otherwise.
+     *
+     * @param i index of the variable being flipped.
+     */
+    public void flipVariable(int i) {
+        variables[i] = 1 - variables[i];
+        if (gainsUpdated) {
+            final int n = size, row = i * n;
+            if (variables[i] == 1)
+                for (int j = 0; j < n; j++)
+                    gains[j] += S[row + j];
+            else
+                for (int j = 0; j < n; j++)
+                    gains[j] -= S[row + j];
+        }
+    }
+
+    /**
+     * Rebuilds {@link #gains} from the domain variables, if it is outdated.
+     * This takes O(n) per variable set to one.
+     */
+    protected void updateGains() {
+        if (gainsUpdated)
+            return;
+        final int n = size;
+        for (int j = 0; j < n; j++)
+            gains[j] = A[j * n + j];
+        for (int i = 0, row = 0; i < n; i++, row += n)
+            if (variables[i] == 1)
+                for (int j = 0; j < n; j++)
+                    gains[j] += S[row + j];
+        gainsUpdated = true;
     }
 
     /*
@@ -98,12 +281,15 @@ public class QBF implements Evaluator<Integer> {
      * @return The value of the QBF.
      */
     public Double evaluateQBF() {
-        double aux = 0, sum = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++)
-                aux += variables[j] * A[i][j];
-            sum += aux * variables[i];
+        final int n = size;
+        double aux, sum = 0;
+        for (int i = 0, row = 0; i < n; i++, row += n) {
+            if (variables[i] == 0)
+                continue;
             aux = 0;
+            for (int j = 0; j < n; j++)
+                aux += variables[j] * A[row + j];
+            sum += aux * variables[i];
         }
 
         return sum;
@@ -121,6 +307,17 @@ public class QBF implements Evaluator<Integer> {
         return evaluateInsertionQBF(elem);
     }
 
+    /**
+     * {@inheritDoc} The solution is loaded once, and each insertion is then
+     * evaluated in O(1) from the maintained contributions of the variables.
+     */
+    @Override
+    public void evaluateInsertionCosts(List<Integer> elems, Solution<Integer> sol, double[] costs) {
+        setVariables(sol);
+        for (int k = 0; k < elems.size(); k++)
+            costs[k] = evaluateInsertionQBF(elems.get(k));
+    }
+
     /**
      * Determines the contribution to the QBF objective function from the
      * insertion of an element.
@@ -198,11 +395,26 @@ public class QBF implements Evaluator<Integer> {
 
         sum += evaluateContributionQBF(in);
         sum -= evaluateContributionQBF(out);
-        sum -= (A[in][out] + A[out][in]);
+        sum -= S[in * size + out];
 
         return sum;
     }
 
+    /**
+     * Determines the term of the exchange of two elements which depends on
+     * both of them, that is, the variation of the removal cost of the element
+     * belonging to the solution when the other one is inserted into it.
+     *
+     * @param in  The index of the element that is considered entering the
+     *            solution.
+     * @param out The index of the element that is considered exiting the
+     *            solution.
+     * @return The exchange cost minus the insertion and removal costs.
+     */
+    public double evaluateInteractionQBF(int in, int out) {
+        return -S[in * size + out];
+    }
+
     /**
      * Determines the contribution to the QBF objective function from the
      * insertion of an element. This method is faster than evaluating the whole
@@ -217,45 +429,190 @@ public class QBF implements Evaluator<Integer> {
      *         insertion.
      */
     public Double evaluateContributionQBF(int i) {
-        Double sum = 0.0;
+        updateGains();
+        return gains[i];
+    }
+
+    /**
+     * Determines the variation of the cost of a solution from flipping some of
+     * its variables, one after the other.
+     *
+     * @param sol   The solution whose variables are flipped, which is kept
+     *              unchanged.
+     * @param flips The distinct indices of the variables being flipped.
+     * @param count The number of variables being flipped.
+     * @return The variation of the cost resulting from the flips.
+     */
+    public Double evaluateFlipsCost(Solution<Integer> sol, int[] flips, int count) {
+        setVariables(sol);
+        return evaluateFlipsQBF(flips, count);
+    }
 
-        for (int j = 0; j < size; j++) {
-            if (i != j)
-                sum += variables[j] * (A[i][j] + A[j][i]);
+    /**
+     * Determines the variation of the QBF objective function from flipping
+     * some variables, one after the other. Each flip is evaluated from the
+     * contribution of its variable with the earlier flips applied, which
+     * takes O(k) when {@link #gains} are being maintained and O(n) otherwise,
+     * instead of evaluating the flipped solution from scratch.
+     *
+     * @param flips The distinct indices of the variables being flipped.
+     * @param count The number of variables being flipped.
+     * @return The variation of the objective function resulting from the
+     *         flips.
+     */
+    public Double evaluateFlipsQBF(int[] flips, int count) {
+        final int n = size;
+        double sum = 0.0;
+        for (int k = 0; k < count; k++) {
+            int i = flips[k], row = i * n;
+            double contribution;
+            if (gainsUpdated) {
+                contribution = gains[i];
+                for (int l = 0; l < k; l++)
+                    contribution += variables[flips[l]] == 1 ? S[row + flips[l]] : -S[row + flips[l]];
+            } else {
+                contribution = A[row + i];
+                for (int j = 0; j < n; j++)
+                    contribution += S[row + j] * variables[j];
+            }
+            sum += variables[i] == 1 ? -contribution : contribution;
+            variables[i] = 1 - variables[i];
         }
-        sum += A[i][i];
+        for (int k = 0; k < count; k++) // restores the variables of the solution
+            variables[flips[k]] = 1 - variables[flips[k]];
 
         return sum;
     }
 
     public Double evaluateContributionQBF(int i, Solution<Integer> sol) {
         setVariables(sol);
+        return evaluateContributionQBF(i);
+    }
+
+    /**
+     * {@inheritDoc} The cost is updated from the insertion cost, so that this
+     * takes O(n) instead of re-evaluating the whole QBF.
+     */
+    @Override
+    public Double applyInsertion(Integer elem, Solution<Integer> sol) {
+        setVariables(sol);
+        if (variables[elem] == 1)
+            return 0.0;
+
+        Double delta = evaluateInsertionQBF(elem);
+        sol.add(elem);
+        flipElement(elem, sol);
+        return commitMove(delta, sol);
+    }
+
+    /**
+     * {@inheritDoc} The cost is updated from the removal cost, so that this
+     * takes O(n) instead of re-evaluating the whole QBF.
+     */
+    @Override
+    public Double applyRemoval(Integer elem, Solution<Integer> sol) {
+        setVariables(sol);
+        if (variables[elem] == 0)
+            return 0.0;
+
+        Double delta = evaluateRemovalQBF(elem);
+        sol.remove(elem);
+        flipElement(elem, sol);
+        return commitMove(delta, sol);
+    }
 
-        Double sum = 0.0;
+    /**
+     * {@inheritDoc} The cost is updated from the exchange cost, so that this
+     * takes O(n) instead of re-evaluating the whole QBF.
+     */
+    @Override
+    public Double applyExchange(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
+        setVariables(sol);
+        if (elemIn.equals(elemOut))
+            return 0.0;
+        if (variables[elemIn] == 1)
+            return applyRemoval(elemOut, sol);
+        if (variables[elemOut] == 0)
+            return applyInsertion(elemIn, sol);
+
+        Double delta = evaluateExchangeQBF(elemIn, elemOut);
+        sol.remove(elemOut);
+        sol.add(elemIn);
+        flipElement(elemOut, sol);
+        flipElement(elemIn, sol);
+        return commitMove(delta, sol);
+    }
+
+    /**
+     * Flips the domain variable of an element which has just been inserted
+     * into or removed from a solution. Subclasses keeping further attributes
+     * in the solution should update them here.
+     *
+     * @param i   index of the element.
+     * @param sol the solution that was modified.
+     */
+    protected void flipElement(int i, Solution<Integer> sol) {
+        flipVariable(i);
+    }
 
-        for (int j = 0; j < size; j++) {
-            if (i != j)
-                sum += variables[j] * (A[i][j] + A[j][i]);
+    /**
+     * Finishes a move applied to the loaded solution, adding its cost
+     * variation to the solution cost and performing the periodic full
+     * recomputation set by {@link #driftCheckInterval}.
+     *
+     * @param delta the cost variation of the move.
+     * @param sol   the solution that was modified.
+     * @return the cost variation of the move.
+     */
+    private Double commitMove(Double delta, Solution<Integer> sol) {
+        currVersion = sol.version();
+        sol.cost += delta;
+        if (driftCheckInterval > 0 && ++movesSinceCheck >= driftCheckInterval) {
+            movesSinceCheck = 0;
+            recompute(sol);
         }
-        sum += A[i][i];
+        return delta;
+    }
 
-        return sum;
+    /**
+     * Recomputes from scratch the cost of the loaded solution and the gains of
+     * the variables.
+     *
+     * @param sol the solution loaded into the domain variables.
+     */
+    protected void recompute(Solution<Integer> sol) {
+        gainsUpdated = false;
+        sol.cost = evaluateQBF();
     }
 
     /**
      * Responsible for reading the coefficients matrix {@link #A}.
      */
     protected void read_coefs(StreamTokenizer stok, int _size) throws IOException {
-        A = new Double[_size][_size];
+        A = new double[_size * _size]; // the lower triangle is already zeroed
         for (int i = 0; i < _size; i++)
             for (int j = i; j < _size; j++) {
                 stok.nextToken();
-                A[i][j] = stok.nval;
-                if (j > i)
-                    A[j][i] = 0.0;
+                A[i * _size + j] = stok.nval;
             }
     }
 
+    /**
+     * Computes the symmetric matrix {@link #S} = A + A' with a zeroed diagonal.
+     *
+     * @param A     The matrix of coefficients, in row-major order.
+     * @param _size The dimension of the domain.
+     * @return The symmetrized matrix, in row-major order.
+     */
+    protected static double[] symmetrize(double[] A, int _size) {
+        double[] S = new double[_size * _size];
+        for (int i = 0; i < _size; i++)
+            for (int j = 0; j < _size; j++)
+                if (i != j)
+                    S[i * _size + j] = A[i * _size + j] + A[j * _size + i];
+        return S;
+    }
+
     /**
      * Responsible for setting the QBF function parameters by reading the
      * necessary input from an external file. this method reads the domain's
@@ -283,8 +640,8 @@ public class QBF implements Evaluator<Integer> {
      *
      * @return a pointer to the array of domain variables.
      */
-    protected Double[] allocateVariables() {
-        return new Double[size];
+    protected double[] allocateVariables() {
+        return new double[size];
     }
 
     /**
@@ -292,6 +649,8 @@ public class QBF implements Evaluator<Integer> {
      */
     public void resetVariables() {
         Arrays.fill(variables, 0.0);
+        gainsUpdated = false;
+        currSol = null;
     }
 
     /**
@@ -300,7 +659,7 @@ public class QBF implements Evaluator<Integer> {
     public void printMatrix() {
         for (int i = 0; i < size; i++) {
             for (int j = i; j < size; j++)
-                System.out.print(A[i][j] + " ");
+                System.out.print(A[i * size + j] + " ");
             System.out.println();
         }
     }
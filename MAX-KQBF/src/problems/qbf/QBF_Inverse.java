@@ -22,6 +22,23 @@ public class QBF_Inverse extends QBF {
         super(filename);
     }
 
+    /**
+     * Constructor for a QBF_Inverse sharing the coefficients of another one.
+     *
+     * @param other The QBF_Inverse whose coefficients are shared.
+     */
+    protected QBF_Inverse(QBF_Inverse other) {
+        super(other);
+    }
+
+    /* (non-Javadoc)
+     * @see problems.qbf.QBF#copy()
+     */
+    @Override
+    public QBF_Inverse copy() {
+        return new QBF_Inverse(this);
+    }
+
 
     /* (non-Javadoc)
      * @see problems.qbf.QBF#evaluate()
@@ -54,4 +71,20 @@ public class QBF_Inverse extends QBF {
     public Double evaluateExchangeQBF(int in, int out) {
         return -super.evaluateExchangeQBF(in, out);
     }
+
+    /* (non-Javadoc)
+     * @see problems.qbf.QBF#evaluateInteractionQBF(int, int)
+     */
+    @Override
+    public double evaluateInteractionQBF(int in, int out) {
+        return -super.evaluateInteractionQBF(in, out);
+    }
+
+    /* (non-Javadoc)
+     * @see problems.qbf.QBF#evaluateFlipsQBF(int[], int)
+     */
+    @Override
+    public Double evaluateFlipsQBF(int[] flips, int count) {
+        return -super.evaluateFlipsQBF(flips, count);
+    }
 }
@@ -3,7 +3,9 @@ package problems.qbf.solvers;
 import java.io.IOException;
 
 import metaheuristics.ga.AbstractGA;
+import metaheuristics.ga.Chromosome;
 import problems.Evaluator;
+import problems.qbf.QBF;
 import problems.qbf.QBF_Inverse;
 import solutions.Solution;
 
@@ -14,7 +16,31 @@ import solutions.Solution;
  *
  * @author ccavellucci, fusberti
  */
-public class GA_QBF extends AbstractGA<Integer, Integer> {
+public class GA_QBF extends AbstractGA<Integer> {
+
+    /**
+     * whether the fitness of a modified chromosome is computed from the genes
+     * changed since its last known fitness, instead of from scratch.
+     */
+    public boolean deltaFitness = true;
+
+    /**
+     * whether every fitness computed from the changed genes is checked
+     * against a full evaluation of the chromosome.
+     */
+    public boolean verifyDeltaFitness = false;
+
+    /**
+     * the solution into which each thread decodes the chromosomes it
+     * evaluates
+     */
+    private final ThreadLocal<Solution<Integer>> decoded = ThreadLocal.withInitial(this::createEmptySol);
+
+    /**
+     * the buffer in which each thread lists the changed genes of the
+     * chromosomes it evaluates
+     */
+    private final ThreadLocal<int[]> flips = ThreadLocal.withInitial(() -> new int[chromosomeSize]);
 
     /**
      * Constructor for the GA_QBF class. The QBF objective function is passed as
@@ -45,7 +71,7 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      */
     @Override
     public Solution<Integer> createEmptySol() {
-        Solution<Integer> sol = new Solution<>();
+        Solution<Integer> sol = new Solution<>(ObjFunction.getDomainSize());
         sol.cost = 0.0;
         return sol;
     }
@@ -58,14 +84,38 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      */
     @Override
     protected Solution<Integer> decode(Chromosome chromosome) {
-        Solution<Integer> solution = createEmptySol();
-        for (int locus = 0; locus < chromosome.size(); locus++)
-            if (chromosome.get(locus) == 1)
-                solution.add(locus);
-        ObjFunction.evaluate(solution);
+        Solution<Integer> solution = decodeElements(chromosome, createEmptySol());
+        evaluator().evaluate(solution);
+        return solution;
+    }
+
+    /**
+     * Decodes a chromosome without evaluating the resulting solution.
+     *
+     * @param chromosome The genotype being decoded.
+     * @param solution   The solution whose elements are replaced by the
+     *                   decoded ones.
+     * @return The corresponding fenotype (solution), with no meaningful cost.
+     */
+    protected Solution<Integer> decodeElements(Chromosome chromosome, Solution<Integer> solution) {
+        solution.clear();
+        for (int locus = chromosome.nextSetBit(0); locus >= 0; locus = chromosome.nextSetBit(locus + 1))
+            solution.addElement(locus);
         return solution;
     }
 
+    /**
+     * Decodes a chromosome into the solution reserved for the current thread,
+     * without evaluating it.
+     *
+     * @param chromosome The genotype being decoded.
+     * @return The corresponding fenotype (solution), with no meaningful cost,
+     * which is overwritten by the next decoding in the same thread.
+     */
+    protected Solution<Integer> decodeElements(Chromosome chromosome) {
+        return decodeElements(chromosome, decoded.get());
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -73,10 +123,7 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      */
     @Override
     protected Chromosome generateRandomChromosome() {
-        Chromosome chromosome = new Chromosome();
-        for (int i = 0; i < chromosomeSize; i++)
-            chromosome.add(rng.nextInt(2));
-        return chromosome;
+        return Chromosome.random(chromosomeSize, rng);
     }
 
     /*
@@ -86,19 +133,38 @@ public class GA_QBF extends AbstractGA<Integer, Integer> {
      * Chromosome)
      */
     @Override
-    protected Double fitness(Chromosome chromosome) {
-        return -decode(chromosome).cost;
+    protected double fitness(Chromosome chromosome) {
+        if (!Double.isNaN(chromosome.fitness)) // not modified since it was evaluated
+            return chromosome.fitness;
+
+        Solution<Integer> solution = decodeElements(chromosome);
+        int changes = chromosome.changedCount();
+        if (!deltaFitness || Double.isNaN(chromosome.baseFitness()) || changes >= solution.size())
+            return -evaluator().evaluate(solution);
+
+        // Flipping back the changed genes gives the chromosome of known fitness:
+        int[] flips = this.flips.get();
+        for (int k = 0, locus = chromosome.nextChangedBit(0); locus >= 0; locus = chromosome.nextChangedBit(locus + 1))
+            flips[k++] = locus;
+        double fitness = chromosome.baseFitness() + ((QBF) evaluator()).evaluateFlipsCost(solution, flips, changes);
+
+        if (verifyDeltaFitness) {
+            double expected = -decode(chromosome).cost;
+            if (Math.abs(fitness - expected) > 1e-6 * Math.max(1.0, Math.abs(expected)))
+                throw new IllegalStateException("Delta fitness " + fitness + " differs from the full evaluation " + expected);
+        }
+        return fitness;
     }
 
     /*
      * (non-Javadoc)
      *
      * @see
-     * metaheuristics.ga.AbstractGA#mutateGene(metaheuristics.ga.AbstractGA.Chromosome, java.lang.Integer)
+     * metaheuristics.ga.AbstractGA#mutateGene(metaheuristics.ga.Chromosome, int)
      */
     @Override
-    protected void mutateGene(Chromosome chromosome, Integer locus) {
-        chromosome.set(locus, 1 - chromosome.get(locus));
+    protected void mutateGene(Chromosome chromosome, int locus) {
+        chromosome.flip(locus);
     }
 
     /**
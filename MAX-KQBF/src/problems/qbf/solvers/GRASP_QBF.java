@@ -2,13 +2,15 @@ package problems.qbf.solvers;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 
 import metaheuristics.grasp.AbstractGRASP;
 import metaheuristics.grasp.ConstructiveHeuristic;
 import problems.Evaluator;
+import problems.qbf.QBF;
 import problems.qbf.QBF_Inverse;
 import solutions.Solution;
+import structures.IntIndexedSet;
+import structures.RandomLists;
 
 
 /**
@@ -23,6 +25,17 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
 
     public final boolean stImproving;
 
+    /**
+     * the number of positions of the CL whose candidates were already drawn
+     * in the current local search iteration (see {@link #candidateAt(int)})
+     */
+    private int drawn;
+
+    /**
+     * the state of the local search, allocated on its first use
+     */
+    private QBFLocalSearch engine;
+
     /**
      * Constructor for the GRASP_QBF class. An inverse QBF objective function is
      * passed as argument for the superclass constructor.
@@ -47,11 +60,8 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
      * @see grasp.abstracts.AbstractGRASP#makeCL()
      */
     @Override
-    public ArrayList<Integer> makeCL() {
-        ArrayList<Integer> _CL = new ArrayList<>();
-        for (int i = 0; i < ObjFunction.getDomainSize(); i++)
-            _CL.add(i);
-        return _CL;
+    public IntIndexedSet makeCL() {
+        return IntIndexedSet.full(ObjFunction.getDomainSize());
     }
 
     /*
@@ -71,7 +81,7 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
      */
     @Override
     public void updateCL() {
-        Collections.shuffle(CL);
+        // do nothing: the local search draws its random order of the CL itself
     }
 
     /**
@@ -83,7 +93,7 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
      */
     @Override
     public Solution<Integer> createEmptySol() {
-        Solution<Integer> sol = new Solution<>();
+        Solution<Integer> sol = new Solution<>(ObjFunction.getDomainSize());
         sol.cost = 0.0;
         return sol;
     }
@@ -93,32 +103,51 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
      * <p>
      * The local search operator developed for the QBF objective function is
      * composed by the neighborhood moves Insertion, Removal and 2-Exchange.
+     * The costs of the insertions and removals, and the bounds skipping the
+     * exchanges which cannot be selected, are kept by a {@link QBFLocalSearch}.
      */
     @Override
     public Solution<Integer> localSearch() {
         double minDeltaCost;
-        Integer bestCandIn = null, bestCandOut = null;
-        Collections.shuffle(sol);
+        int bestCandIn, bestCandOut;
+        RandomLists.shuffle(sol, rng);
+        if (engine == null)
+            engine = new QBFLocalSearch((QBF) ObjFunction);
+        engine.load(sol);
 
         do {
             minDeltaCost = Double.POSITIVE_INFINITY;
+            bestCandIn = bestCandOut = -1;
             updateCL();
+            drawn = 0;
 
             // Evaluate removals
-            for (Integer candOut : sol) {
-                double deltaCost = ObjFunction.evaluateRemovalCost(candOut, sol);
+            for (int k = 0; k < sol.size(); k++) {
+                int candOut = sol.elementAt(k);
+                double deltaCost = engine.flipCost(candOut);
                 if (deltaCost < minDeltaCost) {
                     minDeltaCost = deltaCost;
-                    bestCandIn = null;
+                    bestCandIn = -1;
                     bestCandOut = candOut;
                     if (stImproving) break;
                 }
             }
-            // Evaluate exchanges
+            /*
+             * Evaluate exchanges, but those which cannot beat the best move.
+             * A best-improving search only applies an improving move, so it
+             * also skips those which cannot improve the solution.
+             */
             outerLoop:
-            for (Integer candIn : CL)
-                for (Integer candOut : sol) {
+            for (int i = 0; i < CL.size(); i++) {
+                int candIn = candidateAt(i);
+                if (engine.dontLook(candIn, stImproving ? minDeltaCost : Math.min(minDeltaCost, -Double.MIN_VALUE)))
+                    continue;
+                double minExchangeCost = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < sol.size(); k++) {
+                    int candOut = sol.elementAt(k);
                     double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, sol);
+                    if (deltaCost < minExchangeCost)
+                        minExchangeCost = deltaCost;
                     if (deltaCost < minDeltaCost) {
                         minDeltaCost = deltaCost;
                         bestCandIn = candIn;
@@ -126,33 +155,66 @@ public class GRASP_QBF extends AbstractGRASP<Integer> {
                         if (stImproving) break outerLoop;
                     }
                 }
+                engine.setBound(candIn, minExchangeCost);
+            }
             // Evaluate insertions
-            for (Integer candIn : CL) {
-                double deltaCost = ObjFunction.evaluateInsertionCost(candIn, sol);
+            for (int i = 0; i < CL.size(); i++) {
+                int candIn = candidateAt(i);
+                double deltaCost = engine.flipCost(candIn);
                 if (deltaCost < minDeltaCost) {
                     minDeltaCost = deltaCost;
                     bestCandIn = candIn;
-                    bestCandOut = null;
+                    bestCandOut = -1;
                     if (stImproving) break;
                 }
             }
             // Implement the best move, if it reduces the solution cost.
             if (minDeltaCost < -Double.MIN_VALUE) {
-                if (bestCandOut != null) {
-                    sol.remove(bestCandOut);
-                    CL.add(bestCandOut);
-                }
-                if (bestCandIn != null) {
-                    sol.add(bestCandIn);
-                    CL.remove(bestCandIn);
-                }
-                ObjFunction.evaluate(sol);
+                engine.apply(bestCandIn, bestCandOut);
+                if (bestCandOut >= 0)
+                    returnToCL(bestCandOut);
+                if (bestCandIn >= 0)
+                    CL.remove((Integer) bestCandIn);
             }
         } while (minDeltaCost < -Double.MIN_VALUE);
 
         return null;
     }
 
+    /**
+     * Puts an element which left the solution back into the CL.
+     *
+     * @param elem The element which left the solution.
+     */
+    protected void returnToCL(int elem) {
+        CL.add(elem);
+    }
+
+    /**
+     * Gives the candidate at a position of the CL, visiting the CL in a
+     * random order which is drawn as it is visited, by the partial
+     * Fisher–Yates shuffle of {@link IntIndexedSet#swap}: a first-improving
+     * scan stopping early only draws the positions it visited. The positions
+     * must be visited in increasing order from the first one.
+     *
+     * @param i The position of the CL.
+     * @return The candidate drawn for that position.
+     */
+    private int candidateAt(int i) {
+        IntIndexedSet candidates = (IntIndexedSet) CL;
+        if (i == drawn) {
+            candidates.swap(i, i + rng.nextInt(candidates.size() - i));
+            drawn++;
+        }
+        return candidates.getInt(i);
+    }
+
+    @Override
+    protected void bindEvaluator(Evaluator<Integer> evaluator) {
+        super.bindEvaluator(evaluator);
+        engine = null; // bound to the former evaluator
+    }
+
     @Override
     protected Evaluator<Integer> initEvaluator(String filename) throws IOException {
         return new QBF_Inverse(filename);
@@ -0,0 +1,210 @@
+package problems.qbf.solvers;
+
+import problems.qbf.QBF;
+import solutions.Solution;
+
+/**
+ * State kept by a local search over the insertions, removals and exchanges of
+ * a QBF solution across its iterations, so that each iteration does not start
+ * from scratch: a lower bound on the costs of the exchanges bringing each
+ * variable into the solution, which acts as a don't-look bit.
+ * <p>
+ * The exchanges of a variable whose bound is not smaller than the cost of the
+ * best move found so far cannot be selected, so they are not evaluated. A
+ * bound is set to the exact minimum when all the exchanges of its variable
+ * are evaluated. The cost of an exchange is the insertion cost of the
+ * variable entering plus the removal cost of the one leaving plus a term
+ * depending only on both, so after each move the bound is still valid once
+ * lowered by the variation of the insertion cost of its variable plus a
+ * lower bound on the variations of the removal costs, while the exchanges
+ * with the variables which entered the solution since are evaluated exactly.
+ * This is done lazily, when the bound is tested, and only for a few moves,
+ * after which the variable is looked at again. Thus only the variables whose costs
+ * decreased enough are looked at again, and the moves selected are exactly
+ * the ones a full scan would select.
+ */
+public class QBFLocalSearch {
+
+    /**
+     * the number of moves a bound is carried over before it is dropped
+     */
+    private static final int MAX_MOVES = 16;
+
+    /**
+     * the objective function, whose domain variables hold the solution
+     */
+    private final QBF evaluator;
+
+    /**
+     * the lower bound on the costs of the exchanges bringing each variable
+     * into the solution, and the insertion cost of the variable when it was
+     * set
+     */
+    private final double[] bounds, insertionCosts;
+
+    /**
+     * the {@link #drift} when each bound was set
+     */
+    private final double[] drifts;
+
+    /**
+     * the number of moves applied when each bound was set, and the
+     * {@link #epoch} of the bound
+     */
+    private final int[] stamps, epochs;
+
+    /**
+     * the smallest variation of the removal cost of another variable in the
+     * solution when each variable is inserted into it, and when it is removed
+     */
+    private final double[] minOnInsertion, minOnRemoval;
+
+    /**
+     * the variable which entered the solution in each of the last moves, or
+     * -1, indexed by the number of the move modulo {@link #MAX_MOVES}
+     */
+    private final int[] entered = new int[MAX_MOVES];
+
+    /**
+     * the amount by which the bounds are lowered after each move, covering
+     * the rounding errors when the costs are not integers
+     */
+    private final double tolerance;
+
+    /**
+     * the sum over the moves of the lower bounds on the variations of the
+     * removal costs of the variables staying in the solution
+     */
+    private double drift;
+
+    /**
+     * the number of moves applied, and the last one leaving no variable of
+     * the solution before it
+     */
+    private int moves, lastEmptied;
+
+    /**
+     * the number of the current local search, the bounds of the former ones
+     * being invalid
+     */
+    private int epoch = 0;
+
+    /**
+     * the solution being improved
+     */
+    private Solution<Integer> sol;
+
+    /**
+     * Constructor for the QBFLocalSearch class.
+     *
+     * @param evaluator The objective function of the solutions improved.
+     */
+    public QBFLocalSearch(QBF evaluator) {
+        this.evaluator = evaluator;
+        int n = evaluator.size;
+        bounds = new double[n];
+        insertionCosts = new double[n];
+        drifts = new double[n];
+        stamps = new int[n];
+        epochs = new int[n];
+        minOnInsertion = new double[n];
+        minOnRemoval = new double[n];
+        for (int i = 0; i < n; i++) {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < n; j++)
+                if (j != i) {
+                    double variation = evaluator.evaluateInteractionQBF(i, j);
+                    min = Math.min(min, variation);
+                    max = Math.max(max, variation);
+                }
+            minOnInsertion[i] = n > 1 ? min : 0;
+            minOnRemoval[i] = n > 1 ? -max : 0;
+        }
+        tolerance = evaluator.hasIntegralCosts() ? 0 : 1e-9;
+    }
+
+    /**
+     * Starts a local search of a solution, forgetting all the bounds, in O(1).
+     *
+     * @param sol The solution being improved.
+     */
+    public void load(Solution<Integer> sol) {
+        this.sol = sol;
+        evaluator.setVariables(sol);
+        epoch++;
+        drift = 0;
+        moves = 0;
+        lastEmptied = -1;
+    }
+
+    /**
+     * @param i A variable.
+     * @return The cost of inserting the variable into the solution, or of
+     * removing it if it is there.
+     */
+    public double flipCost(int i) {
+        return evaluator.variables[i] == 1 ? evaluator.evaluateRemovalQBF(i) : evaluator.evaluateInsertionQBF(i);
+    }
+
+    /**
+     * Tells whether the exchanges bringing a variable into the solution can
+     * be skipped, since none of them costs less than a threshold.
+     *
+     * @param in        A variable out of the solution.
+     * @param threshold The cost an exchange must be smaller than.
+     * @return true if the exchanges of the variable can be skipped.
+     */
+    public boolean dontLook(int in, double threshold) {
+        int since = moves - stamps[in];
+        if (epochs[in] != epoch || since > MAX_MOVES)
+            return false;
+        double bound = Double.POSITIVE_INFINITY; // when none of the variables then in the solution is left
+        if (stamps[in] > lastEmptied)
+            bound = bounds[in] + evaluator.evaluateInsertionQBF(in) - insertionCosts[in]
+                    + drift - drifts[in] - since * tolerance;
+        for (int m = stamps[in]; m < moves && bound >= threshold; m++) {
+            int w = entered[m % MAX_MOVES];
+            if (w >= 0 && evaluator.variables[w] == 1)
+                bound = Math.min(bound, evaluator.evaluateExchangeQBF(in, w));
+        }
+        return bound >= threshold;
+    }
+
+    /**
+     * Records the smallest cost of the exchanges bringing a variable into the
+     * solution, after all of them were evaluated.
+     *
+     * @param in      A variable out of the solution.
+     * @param minCost The smallest cost of its exchanges.
+     */
+    public void setBound(int in, double minCost) {
+        bounds[in] = minCost;
+        insertionCosts[in] = evaluator.evaluateInsertionQBF(in);
+        drifts[in] = drift;
+        stamps[in] = moves;
+        epochs[in] = epoch;
+    }
+
+    /**
+     * Applies a move to the solution, as a removal followed by an insertion,
+     * and accounts for its effect on the bounds, in O(1) besides applying it.
+     *
+     * @param in  The variable inserted into the solution, or -1.
+     * @param out The variable removed from the solution, or -1.
+     */
+    public void apply(int in, int out) {
+        if (out >= 0) {
+            evaluator.applyRemoval(out, sol);
+            epochs[out] = epoch - 1; // its exchanges were never evaluated
+        }
+        if (in >= 0)
+            evaluator.applyInsertion(in, sol);
+
+        if (sol.size() == (in >= 0 ? 1 : 0))
+            lastEmptied = moves;
+        else
+            drift += (out >= 0 ? minOnRemoval[out] : 0) + (in >= 0 ? minOnInsertion[in] : 0);
+        entered[moves % MAX_MOVES] = in;
+        moves++;
+    }
+}
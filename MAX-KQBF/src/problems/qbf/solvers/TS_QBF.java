@@ -1,13 +1,21 @@
 package problems.qbf.solvers;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.DequeTabuList;
+import metaheuristics.tabusearch.IndexedTabuList;
+import metaheuristics.tabusearch.TabuList;
 import problems.Evaluator;
+import problems.qbf.QBF;
 import problems.qbf.QBF_Inverse;
 import solutions.Solution;
+import structures.IntIndexedSet;
 
 /**
  * Metaheuristic TS (Tabu Search) for obtaining an optimal solution to a QBF
@@ -21,8 +29,45 @@ public class TS_QBF extends AbstractTS<Integer> {
 
     public final boolean stImproving;
 
+    public final TabuList.TabuListType tlType;
+
     protected final int fake = -1;
 
+    /**
+     * the pool scanning the exchange neighborhood in parallel, or null if the
+     * scan runs on the calling thread.
+     */
+    protected ForkJoinPool pool = null;
+
+    /**
+     * Snapshot of the candidates to enter and to leave the solution by an
+     * exchange, taken before each exchange scan by
+     * {@link #exchangeNeighborhood(List)}, with room for the whole domain. The
+     * candidate to enter at position i is only exchanged with the candidates
+     * to leave from position scanFrom[i] on.
+     */
+    protected final int[] scanIns, scanOuts, scanFrom;
+
+    /**
+     * Whether each candidate of the snapshot is tabu.
+     */
+    private final boolean[] scanTabuIns, scanTabuOuts;
+
+    /**
+     * the cost variation an exchange must improve on to be selected.
+     */
+    private double scanThreshold;
+
+    /**
+     * the number of candidates to enter scanned sequentially by each task.
+     */
+    private int scanGrain;
+
+    /**
+     * the lowest admissible exchange found so far in first-improving mode.
+     */
+    private final AtomicInteger scanFirst = new AtomicInteger();
+
     /**
      * Constructor for the TS_QBF class. An inverse QBF objective function is
      * passed as argument for the superclass constructor.
@@ -37,8 +82,34 @@ public class TS_QBF extends AbstractTS<Integer> {
      * @throws IOException necessary for I/O operations.
      */
     public TS_QBF(int tenure, int iterations, String filename, boolean stImproving) throws IOException {
+        this(tenure, iterations, filename, stImproving, TabuList.TabuListType.Deque);
+    }
+
+    /**
+     * Constructor for the TS_QBF class. An inverse QBF objective function is
+     * passed as argument for the superclass constructor.
+     *
+     * @param tenure      The Tabu tenure parameter.
+     * @param iterations  The number of iterations which the TS will be executed.
+     * @param filename    Name of the file for which the objective function
+     *                    parameters
+     *                    should be read.
+     * @param stImproving If should use the first-improving local search, or the
+     *                    best-improving.
+     * @param tlType      The Tabu List implementation to be used.
+     * @throws IOException necessary for I/O operations.
+     */
+    public TS_QBF(int tenure, int iterations, String filename, boolean stImproving,
+                  TabuList.TabuListType tlType) throws IOException {
         super(filename, tenure, iterations);
         this.stImproving = stImproving;
+        this.tlType = tlType;
+        int n = ObjFunction.getDomainSize();
+        scanIns = new int[n];
+        scanOuts = new int[n];
+        scanFrom = new int[n];
+        scanTabuIns = new boolean[n];
+        scanTabuOuts = new boolean[n];
     }
 
     @Override
@@ -46,17 +117,26 @@ public class TS_QBF extends AbstractTS<Integer> {
         return new QBF_Inverse(filename);
     }
 
+    /**
+     * Sets how many threads scan the exchange neighborhood. The parallel scan
+     * selects exactly the same move as the serial one.
+     *
+     * @param parallelism The number of threads, or 1 for a serial scan.
+     */
+    public void setParallelism(int parallelism) {
+        if (pool != null)
+            pool.shutdown();
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
     /*
      * (non-Javadoc)
      *
      * @see metaheuristics.tabusearch.AbstractTS#makeCL()
      */
     @Override
-    public ArrayList<Integer> makeCL() {
-        ArrayList<Integer> _CL = new ArrayList<>();
-        for (int i = 0; i < ObjFunction.getDomainSize(); i++)
-            _CL.add(i);
-        return _CL;
+    public IntIndexedSet makeCL() {
+        return IntIndexedSet.full(ObjFunction.getDomainSize());
     }
 
     /*
@@ -75,11 +155,10 @@ public class TS_QBF extends AbstractTS<Integer> {
      * @see metaheuristics.tabusearch.AbstractTS#makeTL()
      */
     @Override
-    public ArrayDeque<Integer> makeTL() {
-        ArrayDeque<Integer> _TS = new ArrayDeque<>(2 * tenure);
-        for (int i = 0; i < 2 * tenure; i++)
-            _TS.add(fake);
-        return _TS;
+    public TabuList<Integer> makeTL() {
+        if (tlType == TabuList.TabuListType.Deque)
+            return new DequeTabuList<>(tenure, fake);
+        return new IndexedTabuList(ObjFunction.getDomainSize(), tenure, tenure);
     }
 
     /*
@@ -101,7 +180,7 @@ public class TS_QBF extends AbstractTS<Integer> {
      */
     @Override
     public Solution<Integer> createEmptySol() {
-        Solution<Integer> sol = new Solution<>();
+        Solution<Integer> sol = new Solution<>(ObjFunction.getDomainSize());
         sol.cost = 0.0;
         return sol;
     }
@@ -118,14 +197,15 @@ public class TS_QBF extends AbstractTS<Integer> {
         _neighborhoodMove(CL);
     }
 
-    protected void _neighborhoodMove(ArrayList<Integer> Neighborhood) {
+    protected void _neighborhoodMove(List<Integer> Neighborhood) {
         double minDeltaCost = Double.POSITIVE_INFINITY;
         Integer bestCandIn = null, bestCandOut = null;
 
         // Evaluate removals
-        for (int candOut : sol) {
+        for (int k = 0; k < sol.size(); k++) {
+            int candOut = sol.elementAt(k);
             double deltaCost = ObjFunction.evaluateRemovalCost(candOut, sol);
-            if (!TL.contains(candOut) || sol.cost + deltaCost < bestSol.cost)
+            if (!TL.isTabuOut(candOut) || sol.cost + deltaCost < bestSol.cost)
                 if (deltaCost < minDeltaCost) {
                     minDeltaCost = deltaCost;
                     bestCandOut = candOut;
@@ -134,24 +214,36 @@ public class TS_QBF extends AbstractTS<Integer> {
                 }
         }
         // Evaluate exchanges
-        outerLoop:
-        for (int candIn : Neighborhood) {
-            for (int candOut : sol) {
-                double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, sol);
-                if (!(TL.contains(candIn) || TL.contains(candOut)) || sol.cost + deltaCost < bestSol.cost)
-                    if (deltaCost < minDeltaCost) {
-                        minDeltaCost = deltaCost;
-                        bestCandIn = candIn;
-                        bestCandOut = candOut;
-                        if (stImproving)
-                            break outerLoop;
+        if (!sol.isEmpty()) {
+            int m = takeExchangeSnapshot(Neighborhood), k = sol.size();
+            if (pool != null) {
+                int pair = parallelExchangeScan(m, minDeltaCost);
+                if (pair >= 0) {
+                    minDeltaCost = exchangeCost(pair);
+                    bestCandIn = scanIns[pair / k];
+                    bestCandOut = scanOuts[pair % k];
+                }
+            } else {
+                outerLoop:
+                for (int i = 0; i < m; i++) {
+                    for (int j = scanFrom[i]; j < k; j++) {
+                        double deltaCost = ObjFunction.evaluateExchangeCost(scanIns[i], scanOuts[j], sol);
+                        if (!(scanTabuIns[i] || scanTabuOuts[j]) || sol.cost + deltaCost < bestSol.cost)
+                            if (deltaCost < minDeltaCost) {
+                                minDeltaCost = deltaCost;
+                                bestCandIn = scanIns[i];
+                                bestCandOut = scanOuts[j];
+                                if (stImproving)
+                                    break outerLoop;
+                            }
                     }
+                }
             }
         }
         // Evaluate insertions
         for (int candIn : Neighborhood) {
             double deltaCost = ObjFunction.evaluateInsertionCost(candIn, sol);
-            if (!TL.contains(candIn) || sol.cost + deltaCost < bestSol.cost)
+            if (!TL.isTabuIn(candIn) || sol.cost + deltaCost < bestSol.cost)
                 if (deltaCost < minDeltaCost) {
                     minDeltaCost = deltaCost;
                     bestCandIn = candIn;
@@ -162,21 +254,138 @@ public class TS_QBF extends AbstractTS<Integer> {
         }
 
         // Implement the best non-tabu move or an aspired one:
-        TL.poll();
         if (bestCandOut != null) {
-            sol.remove(bestCandOut);
-            CL.add(bestCandOut);
-            TL.add(bestCandOut);
-        } else
-            TL.add(fake);
-        TL.poll();
+            ObjFunction.applyRemoval(bestCandOut, sol);
+            returnToCL(bestCandOut);
+        }
         if (bestCandIn != null) {
-            sol.add(bestCandIn);
+            ObjFunction.applyInsertion(bestCandIn, sol);
             CL.remove(bestCandIn);
-            TL.add(bestCandIn);
-        } else
-            TL.add(fake);
-        ObjFunction.evaluate(sol);
+        }
+        TL.addMove(bestCandIn, bestCandOut);
+    }
+
+    /**
+     * Puts an element which left the solution back into the CL.
+     *
+     * @param elem The element which left the solution.
+     */
+    protected void returnToCL(int elem) {
+        CL.add(elem);
+    }
+
+    /**
+     * Sets the snapshot of the exchange neighborhood, {@link #scanIns},
+     * {@link #scanOuts} and {@link #scanFrom}. The candidates to leave the
+     * solution must be all its elements. Here, the candidates to enter it are those of the
+     * neighborhood, which are exchanged with every element of the solution.
+     *
+     * @param Neighborhood The candidates to enter the solution.
+     * @return The number of candidates to enter the solution by an exchange.
+     */
+    protected int exchangeNeighborhood(List<Integer> Neighborhood) {
+        int m = Neighborhood.size();
+        for (int i = 0; i < m; i++) {
+            scanIns[i] = Neighborhood.get(i);
+            scanFrom[i] = 0;
+        }
+        for (int j = 0; j < sol.size(); j++)
+            scanOuts[j] = sol.elementAt(j);
+        return m;
+    }
+
+    /**
+     * Takes the snapshot of the exchange neighborhood through
+     * {@link #exchangeNeighborhood(List)}, with whether each candidate is
+     * tabu.
+     *
+     * @param Neighborhood The candidates to enter the solution.
+     * @return The number of candidates to enter the solution by an exchange.
+     */
+    private int takeExchangeSnapshot(List<Integer> Neighborhood) {
+        int m = exchangeNeighborhood(Neighborhood);
+        for (int i = 0; i < m; i++)
+            scanTabuIns[i] = TL.isTabuIn(scanIns[i]);
+        for (int j = 0; j < sol.size(); j++)
+            scanTabuOuts[j] = TL.isTabuOut(scanOuts[j]);
+        return m;
+    }
+
+    /**
+     * Scans the exchange neighborhood of the snapshot in {@link #pool}. The
+     * pairs (candIn, candOut) are numbered in the order the serial scan visits
+     * them, so that ties can be broken as the serial scan does. The evaluator
+     * is loaded with the incumbent solution beforehand, so that the tasks only
+     * read from it.
+     *
+     * @param m            The number of candidates to enter the solution.
+     * @param minDeltaCost The cost variation an exchange must improve on.
+     * @return The number of the selected pair, or -1 if none was admissible.
+     */
+    private int parallelExchangeScan(int m, double minDeltaCost) {
+        ((QBF) ObjFunction).load(sol);
+        scanThreshold = minDeltaCost;
+        scanGrain = Math.max(1, m / (4 * pool.getParallelism()));
+        scanFirst.set(Integer.MAX_VALUE);
+        return pool.invoke(new ExchangeScan(0, m));
+    }
+
+    private double exchangeCost(int pair) {
+        int k = sol.size();
+        return ObjFunction.evaluateExchangeCost(scanIns[pair / k], scanOuts[pair % k], sol);
+    }
+
+    /**
+     * Task reducing a range of candidates to enter the solution to its best
+     * admissible exchange: the one with the smallest cost variation and, among
+     * those, the first one visited; or, in first-improving mode, the first one
+     * visited improving on the threshold.
+     */
+    private class ExchangeScan extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+
+        ExchangeScan(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo > scanGrain) {
+                int mid = (lo + hi) >>> 1;
+                ExchangeScan right = new ExchangeScan(mid, hi);
+                right.fork();
+                int l = new ExchangeScan(lo, mid).compute(), r = right.join();
+                if (l < 0 || r < 0)
+                    return Math.max(l, r);
+                if (stImproving)
+                    return l;
+                return exchangeCost(r) < exchangeCost(l) ? r : l;
+            }
+
+            int k = sol.size(), best = -1;
+            double minDeltaCost = scanThreshold;
+            for (int i = lo; i < hi; i++) {
+                if (stImproving && i * k > scanFirst.get())
+                    break;
+                for (int j = scanFrom[i]; j < k; j++) {
+                    double deltaCost = ObjFunction.evaluateExchangeCost(scanIns[i], scanOuts[j], sol);
+                    if (!(scanTabuIns[i] || scanTabuOuts[j]) || sol.cost + deltaCost < bestSol.cost)
+                        if (deltaCost < minDeltaCost) {
+                            minDeltaCost = deltaCost;
+                            best = i * k + j;
+                            if (stImproving) {
+                                scanFirst.accumulateAndGet(best, Math::min);
+                                return best;
+                            }
+                        }
+                }
+            }
+            return best;
+        }
     }
 
     /**
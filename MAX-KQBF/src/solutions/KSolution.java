@@ -2,7 +2,7 @@ package solutions;
 
 public class KSolution<E> extends Solution<E> {
 
-    public Double weigth;
+    public double weigth;
 
     public KSolution(Solution<E> sol) {
         super(sol);
@@ -1,20 +1,236 @@
 package solutions;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
 
-public class Solution<E> extends ArrayList<E> implements Cloneable {
+/**
+ * A solution is a set of elements, which are the indices of the decision
+ * variables set to one. Membership is kept in a bitset and the elements are
+ * densely packed in an int array, together with the position of each element
+ * in it, so that adding, removing and testing an element take O(1), and the
+ * elements can be iterated through {@link #elementAt(int)} without boxing.
+ * <p>
+ * Removals move the last element into the freed position, hence the order of
+ * the elements is only kept while elements are being added. Setting a
+ * position to an element which is already in the solution swaps the two
+ * positions, so that a solution can still be shuffled or sorted as a list.
+ *
+ * @param <E> Generic type of the element, which should be an Integer.
+ */
+public class Solution<E> extends AbstractList<E> implements RandomAccess, Cloneable {
+
+    private static final int DEFAULT_CAPACITY = 16;
 
     public Double cost = Double.POSITIVE_INFINITY;
 
+    /**
+     * the elements of the solution, in the first {@link #size} positions.
+     */
+    private int[] elements;
+
+    /**
+     * the position of each element in {@link #elements}, only meaningful for
+     * the elements in the solution.
+     */
+    private int[] positions;
+
+    /**
+     * the membership bitset of the solution.
+     */
+    private long[] members;
+
+    /**
+     * the number of elements in the solution.
+     */
+    private int size = 0;
+
     public Solution() {
-        super();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty solution able to hold the elements in [0, capacity)
+     * without growing its internal arrays.
+     *
+     * @param capacity the expected size of the domain.
+     */
+    public Solution(int capacity) {
+        capacity = Math.max(capacity, 1);
+        elements = new int[capacity];
+        positions = new int[capacity];
+        members = new long[(capacity + 63) >>> 6];
     }
 
     public Solution(Solution<E> sol) {
-        super(sol);
+        elements = sol.elements.clone();
+        positions = sol.positions.clone();
+        members = sol.members.clone();
+        size = sol.size;
         cost = sol.cost;
     }
 
+    /**
+     * Gives a counter that changes whenever elements are added to or removed
+     * from this solution. It allows stateful evaluators to tell whether a
+     * solution was modified since they last looked at it.
+     *
+     * @return the current modification counter of the solution.
+     */
+    public int version() {
+        return modCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) Integer.valueOf(elementAt(index));
+    }
+
+    /**
+     * Gives the element at a given position without boxing it.
+     *
+     * @param index the position of the element.
+     * @return the element at the position.
+     */
+    public int elementAt(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return elements[index];
+    }
+
+    /**
+     * Tests whether an element is in the solution, in O(1).
+     *
+     * @param elem the element being tested.
+     * @return true if the element is in the solution.
+     */
+    public boolean containsElement(int elem) {
+        return elem >= 0 && (elem >>> 6) < members.length && (members[elem >>> 6] & (1L << elem)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && containsElement((Integer) o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return contains(o) ? positions[(Integer) o] : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Adds an element to the solution, if it is not already there.
+     *
+     * @param e the element being added.
+     * @return true if the solution changed.
+     */
+    @Override
+    public boolean add(E e) {
+        return addElement((Integer) e);
+    }
+
+    /**
+     * Adds an element to the solution, if it is not already there, in O(1)
+     * and without boxing it.
+     *
+     * @param elem the element being added.
+     * @return true if the solution changed.
+     */
+    public boolean addElement(int elem) {
+        if (containsElement(elem))
+            return false;
+        ensureCapacity(elem + 1);
+        elements[size] = elem;
+        positions[elem] = size++;
+        members[elem >>> 6] |= 1L << elem;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public E set(int index, E e) {
+        int elem = (Integer) e, old = elementAt(index);
+        if (elem == old)
+            return e;
+        if (containsElement(elem)) { // swap the two positions
+            int pos = positions[elem];
+            elements[pos] = old;
+            positions[old] = pos;
+        } else {
+            ensureCapacity(elem + 1);
+            members[old >>> 6] &= ~(1L << old);
+            members[elem >>> 6] |= 1L << elem;
+            modCount++;
+        }
+        elements[index] = elem;
+        positions[elem] = index;
+        @SuppressWarnings("unchecked")
+        E replaced = (E) Integer.valueOf(old);
+        return replaced;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && removeElement((Integer) o);
+    }
+
+    @Override
+    public E remove(int index) {
+        E removed = get(index);
+        removeElement(elements[index]);
+        return removed;
+    }
+
+    /**
+     * Removes an element from the solution in O(1), moving the last element
+     * into its position.
+     *
+     * @param elem the element being removed.
+     * @return true if the solution changed.
+     */
+    public boolean removeElement(int elem) {
+        if (!containsElement(elem))
+            return false;
+        int pos = positions[elem], last = elements[--size];
+        elements[pos] = last;
+        positions[last] = pos;
+        members[elem >>> 6] &= ~(1L << elem);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            members[elements[i] >>> 6] = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Grows the internal arrays so that they can hold the elements in
+     * [0, capacity).
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= positions.length)
+            return;
+        int newCapacity = Math.max(capacity, positions.length * 2);
+        elements = Arrays.copyOf(elements, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        members = Arrays.copyOf(members, (newCapacity + 63) >>> 6);
+    }
+
     protected String elementsString() {
         return super.toString();
     }
@@ -29,4 +245,3 @@ public class Solution<E> extends ArrayList<E> implements Cloneable {
         return new Solution<>(this);
     }
 }
-
@@ -0,0 +1,188 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A binary min-heap of the integers in [0, capacity), each one with a double
+ * key. The position of each integer in the heap is kept, so that its key can
+ * be changed, or the integer removed, in O(log n). Equal keys are ordered by
+ * the integers, hence the order in which the integers leave the heap does not
+ * depend on the order in which they entered it.
+ */
+public class IndexedMinHeap {
+
+    /**
+     * the integers in the heap, in the first {@link #size} positions.
+     */
+    private final int[] heap;
+
+    /**
+     * the position of each integer in {@link #heap}, or -1 if it is not in the
+     * heap.
+     */
+    private final int[] positions;
+
+    /**
+     * the key of each integer in the heap.
+     */
+    private final double[] keys;
+
+    /**
+     * the number of integers in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty heap for the integers in [0, capacity).
+     *
+     * @param capacity the number of distinct integers.
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int i) {
+        return positions[i] >= 0;
+    }
+
+    /**
+     * @param i an integer in the heap.
+     * @return the key of the integer.
+     */
+    public double key(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Inserts an integer with a key, or changes its key if it is already in
+     * the heap.
+     *
+     * @param i   the integer.
+     * @param key the key of the integer.
+     */
+    public void put(int i, double key) {
+        if (contains(i)) {
+            double old = keys[i];
+            keys[i] = key;
+            if (key < old)
+                siftUp(positions[i]);
+            else
+                siftDown(positions[i]);
+        } else {
+            keys[i] = key;
+            heap[size] = i;
+            positions[i] = size;
+            siftUp(size++);
+        }
+    }
+
+    /**
+     * Replaces the contents of the heap by the integers in [0, n), each one
+     * with a key, in O(n) instead of the O(n log n) of n insertions.
+     *
+     * @param n   the number of integers, at most the capacity.
+     * @param key the key of each integer.
+     */
+    public void build(int n, IntToDoubleFunction key) {
+        clear();
+        for (int i = 0; i < n; i++) {
+            keys[i] = key.applyAsDouble(i);
+            heap[i] = i;
+            positions[i] = i;
+        }
+        size = n;
+        for (int pos = n / 2 - 1; pos >= 0; pos--)
+            siftDown(pos);
+    }
+
+    /**
+     * @return the integer with the smallest key, which is kept in the heap.
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Removes the integer with the smallest key.
+     *
+     * @return the integer removed.
+     */
+    public int poll() {
+        int top = heap[0];
+        remove(top);
+        return top;
+    }
+
+    /**
+     * Removes an integer from the heap, if it is there.
+     *
+     * @param i the integer being removed.
+     */
+    public void remove(int i) {
+        int pos = positions[i];
+        if (pos < 0)
+            return;
+        positions[i] = -1;
+        if (pos == --size)
+            return;
+        int last = heap[size];
+        heap[pos] = last;
+        positions[last] = pos;
+        siftUp(pos);
+        siftDown(positions[last]);
+    }
+
+    public void clear() {
+        for (int pos = 0; pos < size; pos++)
+            positions[heap[pos]] = -1;
+        size = 0;
+    }
+
+    private boolean less(int i, int j) {
+        return keys[i] < keys[j] || (keys[i] == keys[j] && i < j);
+    }
+
+    private void siftUp(int pos) {
+        int i = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!less(i, heap[parent]))
+                break;
+            heap[pos] = heap[parent];
+            positions[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = i;
+        positions[i] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int i = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && less(heap[child + 1], heap[child]))
+                child++;
+            if (!less(heap[child], i))
+                break;
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = i;
+        positions[i] = pos;
+    }
+}
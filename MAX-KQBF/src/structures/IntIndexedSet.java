@@ -0,0 +1,220 @@
+package structures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * A set of the integers in [0, capacity), kept as a dense array of its
+ * elements plus the position of each integer in that array, so that an
+ * element is added, removed, looked up or sampled in O(1).
+ * <p>
+ * It is a {@link java.util.List} of its elements, so that it can be used as a
+ * candidate list, but it does not keep their order on removal: the last
+ * element is moved into the position of the removed one, also by
+ * {@link #remove(int)}.
+ */
+public class IntIndexedSet extends AbstractList<Integer> implements RandomAccess {
+
+    /**
+     * the elements of the set, in the first {@link #size} positions.
+     */
+    private final int[] elements;
+
+    /**
+     * the position of each integer in {@link #elements}, or -1 if it is not
+     * in the set.
+     */
+    private final int[] positions;
+
+    private int size = 0;
+
+    /**
+     * Creates an empty set for the integers in [0, capacity).
+     *
+     * @param capacity the number of distinct integers.
+     */
+    public IntIndexedSet(int capacity) {
+        elements = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Creates the set of all the integers in [0, capacity), in increasing
+     * order.
+     *
+     * @param capacity the number of distinct integers.
+     * @return the full set.
+     */
+    public static IntIndexedSet full(int capacity) {
+        IntIndexedSet set = new IntIndexedSet(capacity);
+        for (int i = 0; i < capacity; i++)
+            set.elements[i] = set.positions[i] = i;
+        set.size = capacity;
+        return set;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index a position smaller than {@link #size}.
+     * @return the element at that position.
+     */
+    public int getInt(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return elements[index];
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public boolean containsInt(int i) {
+        return i >= 0 && i < positions.length && positions[i] >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && containsInt((Integer) o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return contains(o) ? positions[(Integer) o] : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Adds an integer at the end of the set, if it is not there.
+     *
+     * @param i the integer, in [0, capacity).
+     * @return true if the set changed.
+     */
+    public boolean addInt(int i) {
+        if (positions[i] >= 0)
+            return false;
+        positions[i] = size;
+        elements[size++] = i;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean add(Integer i) {
+        return addInt(i);
+    }
+
+    /**
+     * Removes the element at a position, moving the last element into it.
+     *
+     * @param index a position smaller than {@link #size}.
+     * @return the removed element.
+     */
+    public int removeAt(int index) {
+        int i = getInt(index), last = elements[--size];
+        elements[index] = last;
+        positions[last] = index;
+        positions[i] = -1;
+        modCount++;
+        return i;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        return removeAt(index);
+    }
+
+    /**
+     * Removes an integer from the set, if it is there.
+     *
+     * @param i the integer being removed.
+     * @return true if the set changed.
+     */
+    public boolean removeInt(int i) {
+        if (!containsInt(i))
+            return false;
+        removeAt(positions[i]);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && removeInt((Integer) o);
+    }
+
+    /**
+     * Removes the elements satisfying a predicate, without boxing them.
+     *
+     * @param filter the predicate telling which elements are removed.
+     * @return true if any element was removed.
+     */
+    public boolean removeMatching(IntPredicate filter) {
+        int oldSize = size;
+        for (int index = size - 1; index >= 0; index--)
+            if (filter.test(elements[index]))
+                removeAt(index);
+        return size != oldSize;
+    }
+
+    /**
+     * Removes all the elements, in O(size).
+     */
+    @Override
+    public void clear() {
+        for (int index = 0; index < size; index++)
+            positions[elements[index]] = -1;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Swaps the elements at two positions.
+     *
+     * @param a a position smaller than {@link #size}.
+     * @param b a position smaller than {@link #size}.
+     */
+    public void swap(int a, int b) {
+        int i = getInt(a), j = getInt(b);
+        elements[a] = j;
+        elements[b] = i;
+        positions[j] = a;
+        positions[i] = b;
+    }
+
+    /**
+     * @param rng the random number generator.
+     * @return an element of the non-empty set chosen uniformly at random.
+     */
+    public int sample(RandomGenerator rng) {
+        return elements[rng.nextInt(size)];
+    }
+
+    /**
+     * Brings a uniform random sample of the elements to the first positions of
+     * the set, in random order, with the first k steps of the Fisher–Yates
+     * shuffle: O(k) instead of the O(size) of a full shuffle.
+     *
+     * @param k   the size of the sample, at most {@link #size}.
+     * @param rng the random number generator.
+     */
+    public void shufflePrefix(int k, RandomGenerator rng) {
+        for (int index = 0; index < k; index++)
+            swap(index, index + rng.nextInt(size - index));
+    }
+}
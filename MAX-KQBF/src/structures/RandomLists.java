@@ -0,0 +1,29 @@
+package structures;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random operations on lists driven by a given {@link RandomGenerator}, so
+ * that each solver can use its own generator instead of the global one behind
+ * {@link java.util.Collections#shuffle(List)}.
+ */
+public final class RandomLists {
+
+    private RandomLists() {
+    }
+
+    /**
+     * Randomly permutes a list with the Fisher–Yates shuffle, swapping its
+     * elements through {@link List#set}.
+     *
+     * @param list the list being shuffled.
+     * @param rng  the random number generator.
+     */
+    public static <T> void shuffle(List<T> list, RandomGenerator rng) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            list.set(i, list.set(j, list.get(i)));
+        }
+    }
+}
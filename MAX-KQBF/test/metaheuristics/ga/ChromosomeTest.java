@@ -0,0 +1,121 @@
+package metaheuristics.ga;
+
+import testing.Check;
+
+import java.util.SplittableRandom;
+
+/**
+ * Checks the bit-packed Chromosome against an array of booleans along random
+ * flips and exchanges of segments and masked words, for sizes around the word
+ * boundaries, together with the Zobrist hash it keeps.
+ */
+public class ChromosomeTest {
+
+    private static final int STEPS = 5000;
+
+    static void checkGenes(boolean[] expected, Chromosome chromosome) {
+        int count = 0, next = -1;
+        StringBuilder sb = new StringBuilder();
+        for (int i = expected.length - 1; i >= 0; i--) {
+            Check.isTrue(chromosome.get(i) == expected[i], "gene " + i);
+            if (expected[i]) {
+                count++;
+                next = i;
+            }
+        }
+        Check.equal(count, chromosome.cardinality(), "number of genes set");
+        Check.equal(next, chromosome.nextSetBit(0), "first gene set");
+        for (int i = 0; i < expected.length; i++) {
+            sb.append(expected[i] ? '1' : '0');
+            if (expected[i])
+                Check.equal(nextSet(expected, i + 1), chromosome.nextSetBit(i + 1), "gene set after " + i);
+        }
+        Check.equal(sb.toString(), chromosome.toString(), "genes");
+        Check.equal(hash(chromosome), chromosome.zobristHash(), "Zobrist hash");
+    }
+
+    /**
+     * Computes the Zobrist hash of a chromosome from scratch.
+     */
+    static long hash(Chromosome chromosome) {
+        long hash = 0L;
+        for (int i = 0; i < chromosome.size(); i++)
+            if (chromosome.get(i))
+                hash ^= Chromosome.zobristKey(i);
+        return hash;
+    }
+
+    static int nextSet(boolean[] genes, int from) {
+        for (int i = from; i < genes.length; i++)
+            if (genes[i])
+                return i;
+        return -1;
+    }
+
+    static void randomOperations(int size, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        Chromosome a = Chromosome.random(size, rng), b = new Chromosome(size);
+        boolean[] x = new boolean[size], y = new boolean[size];
+        for (int i = 0; i < size; i++)
+            x[i] = a.get(i);
+        checkGenes(x, a); // also checks that the bits past the last gene are clear
+        checkGenes(y, b);
+
+        for (int step = 0; step < STEPS; step++) {
+            switch (rng.nextInt(4)) {
+                case 0: {
+                    int i = rng.nextInt(size);
+                    a.flip(i);
+                    x[i] = !x[i];
+                    break;
+                }
+                case 1: {
+                    int i = rng.nextInt(size);
+                    boolean value = rng.nextBoolean();
+                    b.set(i, value);
+                    y[i] = value;
+                    break;
+                }
+                case 2: {
+                    int from = rng.nextInt(size + 1), to = rng.nextInt(size + 1);
+                    a.exchange(b, from, to);
+                    for (int i = from; i < to; i++) {
+                        boolean aux = x[i];
+                        x[i] = y[i];
+                        y[i] = aux;
+                    }
+                    break;
+                }
+                default: {
+                    int w = rng.nextInt(a.wordCount());
+                    long mask = rng.nextLong() & rng.nextLong();
+                    if (w == a.wordCount() - 1 && (size & 63) != 0)
+                        mask &= -1L >>> -size; // only the genes of the last word
+                    a.exchangeWord(b, w, mask);
+                    for (int i = w << 6; i < Math.min(size, (w + 1) << 6); i++)
+                        if ((mask & (1L << i)) != 0) {
+                            boolean aux = x[i];
+                            x[i] = y[i];
+                            y[i] = aux;
+                        }
+                    break;
+                }
+            }
+            checkGenes(x, a);
+            checkGenes(y, b);
+            int distance = 0;
+            for (int i = 0; i < size; i++)
+                if (x[i] != y[i])
+                    distance++;
+            Check.equal(distance, a.distance(b), "distance");
+            Check.isTrue(a.equals(b) == (distance == 0), "equality");
+            Check.isTrue(a.clone().equals(a), "equality of a copy");
+        }
+    }
+
+    public static void main(String[] args) {
+        for (int size : new int[] { 1, 20, 63, 64, 65, 128, 130 })
+            randomOperations(size, size);
+        Check.passed(ChromosomeTest.class);
+    }
+}
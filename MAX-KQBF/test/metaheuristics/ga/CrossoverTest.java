@@ -0,0 +1,92 @@
+package metaheuristics.ga;
+
+import testing.Check;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the word-parallel crossover operators: the k-point crossover against
+ * a gene by gene exchange of the segments between the same points, and the
+ * uniform crossover for the rate at which it exchanges genes. The parents are
+ * complementary, so that every exchanged gene shows in the offspring.
+ */
+public class CrossoverTest {
+
+    private static final int TRIALS = 2000;
+
+    static Chromosome complement(Chromosome chromosome) {
+        Chromosome other = chromosome.clone();
+        for (int i = 0; i < other.size(); i++)
+            other.flip(i);
+        return other;
+    }
+
+    /**
+     * Recombines two copies of complementary parents, checking that the
+     * genes are conserved and that the changed genes are recorded.
+     *
+     * @return whether each gene was exchanged.
+     */
+    static boolean[] recombine(Crossover crossover, Chromosome parent, SplittableRandom rng) {
+        Chromosome offspring1 = parent.clone(), offspring2 = complement(parent);
+        offspring1.fitness = offspring2.fitness = 0.0; // the base of the changed genes
+        crossover.recombine(offspring1, offspring2, rng);
+        Check.equal(parent.size(), offspring1.distance(offspring2), "genes conserved");
+        int exchanged = offspring1.distance(parent);
+        if (exchanged > 0) { // otherwise the offspring keep their fitness
+            Check.isTrue(Double.isNaN(offspring1.fitness) && Double.isNaN(offspring2.fitness), "fitness dropped");
+            Check.equal(exchanged, offspring1.changedCount(), "changed genes of the first offspring");
+            Check.equal(exchanged, offspring2.changedCount(), "changed genes of the second offspring");
+        } else
+            Check.isTrue(offspring1.fitness == 0.0 && offspring2.fitness == 0.0, "fitness kept");
+        boolean[] result = new boolean[parent.size()];
+        for (int i = 0; i < parent.size(); i++)
+            result[i] = offspring1.get(i) != parent.get(i);
+        return result;
+    }
+
+    static void kPoint(int size, int k, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed), replay = new SplittableRandom(seed);
+        Crossover crossover = new KPointCrossover(k);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Chromosome parent = Chromosome.random(size, rng);
+            for (int w = 0; w < parent.wordCount(); w++) // the random chromosome takes a word per 64 genes
+                replay.nextLong();
+            int[] points = new int[k];
+            for (int i = 0; i < k; i++)
+                points[i] = replay.nextInt(size + 1);
+            Arrays.sort(points);
+            boolean[] exchanged = recombine(crossover, parent, rng);
+            for (int i = 0, p = 0; i < size; i++) {
+                while (p < k && points[p] <= i)
+                    p++;
+                Check.isTrue(exchanged[i] == (p % 2 == 1), "gene " + i + " exchanged between the points");
+            }
+        }
+    }
+
+    static void uniform(int size, double bias, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        Crossover crossover = new UniformCrossover(bias);
+        long count = 0;
+        for (int trial = 0; trial < TRIALS; trial++)
+            for (boolean exchanged : recombine(crossover, Chromosome.random(size, rng), rng))
+                if (exchanged)
+                    count++;
+        double rate = (double) count / ((long) size * TRIALS);
+        if (bias == 0.0 || bias == 1.0)
+            Check.isTrue(rate == bias, "rate of exchanged genes " + rate + " for " + bias);
+        else // over 10^5 genes, far beyond the standard deviation
+            Check.isTrue(Math.abs(rate - bias) < 0.01, "rate of exchanged genes " + rate + " for " + bias);
+    }
+
+    public static void main(String[] args) {
+        for (int size : new int[] { 1, 64, 100, 130 })
+            for (int k = 1; k <= 4; k++)
+                kPoint(size, k, size * 10 + k);
+        for (double bias : new double[] { 0.0, 0.1, 0.3, 0.5, 0.75, 1.0 })
+            uniform(100, bias, (long) (bias * 100));
+        Check.passed(CrossoverTest.class);
+    }
+}
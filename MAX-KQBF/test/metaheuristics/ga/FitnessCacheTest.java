@@ -0,0 +1,133 @@
+package metaheuristics.ga;
+
+import testing.Check;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that FitnessCache only returns the evaluation recorded for the very
+ * genes looked up, with and without evictions, and for two chromosomes with
+ * the same Zobrist hash.
+ */
+public class FitnessCacheTest {
+
+    private static final int SIZE = 70, POOL = 500, STEPS = 20000;
+
+    /**
+     * Evaluates a chromosome as a repair would: the genes past locus 60 are
+     * cleared, and the fitness is computed from the remaining ones.
+     */
+    static void evaluate(Chromosome chromosome) {
+        for (int i = 60; i < SIZE; i++)
+            chromosome.set(i, false);
+        double fitness = 0;
+        for (int i = chromosome.nextSetBit(0); i >= 0; i = chromosome.nextSetBit(i + 1))
+            fitness += i * i;
+        chromosome.fitness = fitness;
+    }
+
+    /**
+     * Evaluates a chromosome through the cache, as the GA does.
+     *
+     * @return true if the evaluation was found in the cache.
+     */
+    static boolean evaluateCached(FitnessCache cache, Chromosome chromosome) {
+        if (cache.lookup(chromosome))
+            return true;
+        long key = chromosome.zobristHash();
+        long[] genes = new long[chromosome.wordCount()];
+        chromosome.copyGenes(genes);
+        evaluate(chromosome);
+        cache.put(key, genes, chromosome);
+        return false;
+    }
+
+    static void checkEvaluated(Chromosome original, Chromosome cached) {
+        Chromosome expected = original.clone();
+        evaluate(expected);
+        Check.equal(expected.toString(), cached.toString(), "evaluated genes");
+        Check.isTrue(expected.fitness == cached.fitness, "fitness");
+        Check.equal(ChromosomeTest.hash(expected), cached.zobristHash(), "Zobrist hash of the evaluated genes");
+    }
+
+    static void cached(int capacity, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        FitnessCache cache = new FitnessCache(capacity);
+        Chromosome[] pool = new Chromosome[POOL];
+        for (int p = 0; p < POOL; p++)
+            pool[p] = Chromosome.random(SIZE, rng);
+        Map<Chromosome, Boolean> recorded = new HashMap<>();
+        int hits = 0;
+
+        for (int step = 0; step < STEPS; step++) {
+            Chromosome original = pool[rng.nextInt(POOL)], chromosome = original.clone();
+            boolean hit = evaluateCached(cache, chromosome);
+            checkEvaluated(original, chromosome);
+            if (hit) {
+                hits++;
+                Check.isTrue(recorded.containsKey(original), "a hit was recorded before");
+            } else if (capacity >= 16 * POOL) // no segment is ever full
+                Check.isTrue(!recorded.containsKey(original), "a recorded chromosome is kept");
+            recorded.put(original, true);
+            Check.isTrue(cache.lookup(original.clone()), "the last chromosome recorded is found");
+            hits++;
+        }
+        Check.close((double) hits / (2 * STEPS), cache.hitRatio(), "hit ratio");
+
+        cache.clear();
+        Check.isTrue(!cache.lookup(pool[0].clone()), "nothing is found after a clear");
+    }
+
+    /**
+     * Builds a nonempty set of loci whose Zobrist keys xor to zero, which
+     * exists as more than 64 keys of 64 bits are linearly dependent, by a
+     * Gaussian elimination over GF(2).
+     */
+    static Chromosome zeroHash() {
+        long[] basis = new long[64];
+        Chromosome[] combination = new Chromosome[64];
+        for (int locus = 0; locus < SIZE; locus++) {
+            long key = Chromosome.zobristKey(locus);
+            Chromosome loci = new Chromosome(SIZE); // the loci whose keys xor to key
+            loci.flip(locus);
+            while (key != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(key);
+                if (basis[bit] == 0) {
+                    basis[bit] = key;
+                    combination[bit] = loci;
+                    break;
+                }
+                key ^= basis[bit];
+                for (int i = combination[bit].nextSetBit(0); i >= 0; i = combination[bit].nextSetBit(i + 1))
+                    loci.flip(i);
+            }
+            if (key == 0)
+                return loci;
+        }
+        throw new AssertionError("more than 64 keys must be dependent");
+    }
+
+    static void collision() {
+        Chromosome empty = new Chromosome(SIZE), other = zeroHash();
+        Check.equal(empty.zobristHash(), other.zobristHash(), "colliding hashes");
+        Check.isTrue(other.cardinality() > 0, "colliding chromosomes differ");
+
+        FitnessCache cache = new FitnessCache(16);
+        Chromosome a = empty.clone(), b = other.clone();
+        Check.isTrue(!evaluateCached(cache, a), "first evaluation");
+        Check.isTrue(!evaluateCached(cache, b), "same hash, other genes");
+        checkEvaluated(other, b);
+        Check.isTrue(cache.lookup(other.clone()), "latest genes recorded for the hash");
+        Check.isTrue(!cache.lookup(empty.clone()), "replaced genes of the hash");
+    }
+
+    public static void main(String[] args) {
+        cached(16 * POOL, 1);
+        cached(64, 2);
+        cached(1, 3);
+        collision();
+        Check.passed(FitnessCacheTest.class);
+    }
+}
@@ -0,0 +1,72 @@
+package metaheuristics.ga;
+
+import problems.qbf.solvers.GA_QBF;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the ranking of AbstractGA.Population, kept by heaps re-keyed on each
+ * update, against a sort of the chromosomes by decreasing fitness, the one of
+ * larger index first among equal fitness.
+ */
+public class PopulationTest {
+
+    private static final int STEPS = 20000;
+
+    static void checkRanking(AbstractGA<Integer>.Population population) {
+        int n = population.size();
+        Integer[] order = new Integer[n];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -population.get(i).fitness)
+                .thenComparing(i -> -i));
+        double sum = 0;
+        for (int r = 0; r < n; r++) {
+            Check.equal((int) order[r], population.indexOfRank(r), "index of rank " + r);
+            Check.equal(r, population.rankOf(order[r]), "rank of " + order[r]);
+            sum += population.get(r).fitness;
+        }
+        Check.equal((int) order[0], population.indexOfBest(), "index of the best");
+        Check.equal((int) order[n - 1], population.indexOfWorst(), "index of the worst");
+        Check.isTrue(population.best() == population.get(order[0]), "best chromosome");
+        Check.isTrue(population.worst() == population.get(order[n - 1]), "worst chromosome");
+        Check.close(sum / n, population.meanFitness(), "mean fitness");
+    }
+
+    static void ranking(int size, long seed) throws IOException {
+        GA_QBF ga = new GA_QBF(1, size, 0.0, "instances/qbf/qbf020");
+        SplittableRandom rng = new SplittableRandom(seed);
+        AbstractGA<Integer>.Population population = ga.new Population();
+
+        for (int step = 0; step < STEPS; step++) {
+            if (step % 1000 == 0) { // a new population, possibly of another size
+                population.clear();
+                for (int i = Math.max(1, size - rng.nextInt(2)); i > 0; i--) {
+                    Chromosome chromosome = new Chromosome(20);
+                    chromosome.fitness = rng.nextInt(size); // many equal fitness values
+                    population.add(chromosome);
+                }
+                population.rank();
+            } else {
+                int i = rng.nextInt(population.size());
+                population.get(i).fitness = rng.nextInt(size);
+                population.update(i);
+            }
+            if (step % 7 == 0) // a query also sorts the ranks lazily
+                checkRanking(population);
+            else
+                Check.equal(population.indexOfWorst(), population.indexOfRank(population.size() - 1), "worst");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ranking(1, 1);
+        ranking(2, 2);
+        ranking(10, 3);
+        ranking(101, 4);
+        Check.passed(PopulationTest.class);
+    }
+}
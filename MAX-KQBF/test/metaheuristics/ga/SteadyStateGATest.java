@@ -0,0 +1,94 @@
+package metaheuristics.ga;
+
+import problems.qbf.solvers.GA_QBF;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that the steady-state GA never inserts a duplicate into the
+ * population, and that its table of hashes indexes every hash of the
+ * population, with the number of chromosomes having it, while duplicates of
+ * the initial population are replaced one by one.
+ */
+public class SteadyStateGATest {
+
+    private static final int STEPS = 3000;
+
+    /**
+     * Checks the table of hashes of the engine against the population.
+     */
+    static void checkIndex(SteadyStateGA<Integer> engine) {
+        int[] table = engine.table, counts = engine.counts;
+        long[] hashes = engine.hashes;
+        Map<Long, Integer> multiplicity = new HashMap<>();
+        for (int i = 0; i < engine.ga.population.size(); i++) {
+            long hash = engine.ga.population.get(i).zobristHash();
+            Check.equal(hash, hashes[i], "hash of chromosome " + i);
+            multiplicity.merge(hash, 1, Integer::sum);
+        }
+        int indexed = 0;
+        for (int pos = 0; pos < table.length; pos++) {
+            if (table[pos] == 0) {
+                Check.equal(0, counts[pos], "count of an empty position");
+                continue;
+            }
+            long hash = hashes[table[pos] - 1];
+            Check.equal((int) multiplicity.get(hash), counts[pos], "chromosomes with the hash of position " + pos);
+            indexed++;
+        }
+        Check.equal(multiplicity.size(), indexed, "hashes indexed");
+    }
+
+    static int equalPairs(AbstractGA<Integer>.Population population) {
+        int pairs = 0;
+        for (int i = 0; i < population.size(); i++)
+            for (int j = i + 1; j < population.size(); j++)
+                if (population.get(i).equals(population.get(j)))
+                    pairs++;
+        return pairs;
+    }
+
+    static void duplicates(int distinct, long seed) throws IOException {
+        GA_QBF ga = new GA_QBF(1, 30, 0.05, "instances/qbf/qbf020") {
+            private Chromosome[] pool;
+
+            @Override
+            protected Chromosome generateRandomChromosome() { // draws copies from a few chromosomes
+                if (pool == null) {
+                    pool = new Chromosome[distinct];
+                    for (int p = 0; p < distinct; p++)
+                        pool[p] = super.generateRandomChromosome();
+                }
+                return pool[rng.nextInt(distinct)].clone();
+            }
+        };
+        ga.setRandomGenerator(new SplittableRandom(seed));
+        SteadyStateGA<Integer> engine = new SteadyStateGA<>(ga);
+        engine.initialize();
+        checkIndex(engine);
+
+        int pairs = equalPairs(ga.population);
+        double best = ga.population.best().fitness;
+        for (int step = 0; step < STEPS; step++) {
+            engine.step();
+            checkIndex(engine);
+            int after = equalPairs(ga.population);
+            Check.isTrue(after <= pairs, "no duplicate inserted at step " + step);
+            Check.isTrue(ga.population.best().fitness >= best, "the best chromosome is kept");
+            pairs = after;
+            best = ga.population.best().fitness;
+        }
+        Check.isTrue(engine.replacements > 0, "offsprings inserted");
+    }
+
+    public static void main(String[] args) throws IOException {
+        duplicates(1, 1);
+        duplicates(3, 2);
+        duplicates(30, 3);
+        Check.passed(SteadyStateGATest.class);
+    }
+}
@@ -0,0 +1,53 @@
+package metaheuristics.tabusearch;
+
+import testing.Check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks IndexedTabuList against the moves recorded in the last iterations
+ * along random moves, with distinct tenures to enter and to leave the
+ * solution, also after it is cleared.
+ */
+public class IndexedTabuListTest {
+
+    private static final int STEPS = 20000;
+
+    static void moves(int size, int tenureIn, int tenureOut, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        IndexedTabuList list = new IndexedTabuList(size, tenureIn, tenureOut);
+        List<Integer> ins = new ArrayList<>(), outs = new ArrayList<>(); // the moves since the last clear()
+
+        for (int step = 0; step < STEPS; step++) {
+            if (rng.nextInt(500) == 0) {
+                list.clear();
+                ins.clear();
+                outs.clear();
+            }
+            int iteration = ins.size();
+            for (int e = 0; e < size; e++) {
+                boolean tabuIn = false, tabuOut = false;
+                for (int m = Math.max(0, iteration - tenureIn); m < iteration; m++)
+                    tabuIn |= outs.get(m) == e;
+                for (int m = Math.max(0, iteration - tenureOut); m < iteration; m++)
+                    tabuOut |= ins.get(m) == e;
+                Check.isTrue(list.isTabuIn(e) == tabuIn, "tabu to enter of " + e + " at step " + step);
+                Check.isTrue(list.isTabuOut(e) == tabuOut, "tabu to leave of " + e + " at step " + step);
+            }
+            Integer in = rng.nextInt(4) == 0 ? null : rng.nextInt(size);
+            Integer out = rng.nextInt(4) == 0 ? null : rng.nextInt(size);
+            list.addMove(in, out);
+            ins.add(in == null ? -1 : in);
+            outs.add(out == null ? -1 : out);
+        }
+    }
+
+    public static void main(String[] args) {
+        moves(10, 3, 1, 1);
+        moves(30, 0, 5, 2);
+        moves(30, 7, 7, 3);
+        Check.passed(IndexedTabuListTest.class);
+    }
+}
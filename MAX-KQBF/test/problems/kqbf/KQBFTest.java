@@ -0,0 +1,157 @@
+package problems.kqbf;
+
+import solutions.KSolution;
+import solutions.Solution;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Checks KQBF#repair against a plain greedy repair recomputing every ratio
+ * from scratch, and KQBF#localSearch against an enumeration of every move
+ * keeping the solution in the knapsack, together with the cost and weight
+ * they leave against a full evaluation.
+ */
+public class KQBFTest {
+
+    private static final int TRIALS = 300;
+
+    static KSolution<Integer> randomSolution(int n, double density, Random rng) {
+        KSolution<Integer> sol = new KSolution<>(new Solution<>(n));
+        for (int i = 0; i < n; i++)
+            if (rng.nextDouble() < density)
+                sol.add(i);
+        return sol;
+    }
+
+    static KSolution<Integer> copy(KSolution<Integer> sol) {
+        KSolution<Integer> aux = new KSolution<>(new Solution<>(sol.size() + 1));
+        aux.addAll(sol);
+        return aux;
+    }
+
+    static double weight(KQBF f, Solution<Integer> sol) {
+        double weight = 0.0;
+        for (int k = 0; k < sol.size(); k++)
+            weight += f.W[sol.elementAt(k)];
+        return weight;
+    }
+
+    /**
+     * Removes, while the solution does not fit, the element of smallest
+     * contribution per unit of weight, the smallest one among ties. An
+     * element of zero weight has an infinite ratio, or zero if it contributes
+     * nothing.
+     */
+    static void greedyRemovals(KQBF f, KSolution<Integer> sol) {
+        while (weight(f, sol) > f.W_max) {
+            int out = -1;
+            double min = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < sol.size(); k++) {
+                int i = sol.elementAt(k);
+                double ratio = f.evaluateContributionQBF(i, sol) / f.W[i];
+                if (Double.isNaN(ratio)) // a zero weight and contribution
+                    ratio = 0.0;
+                if (ratio < min || (ratio == min && i < out)) {
+                    min = ratio;
+                    out = i;
+                }
+            }
+            sol.remove((Integer) out);
+        }
+    }
+
+    /**
+     * Checks the cost and weight of a solution kept by the evaluator.
+     */
+    static void checkEvaluation(KQBF reference, KSolution<Integer> sol) {
+        KSolution<Integer> aux = copy(sol);
+        Check.close(reference.evaluate(aux), sol.cost, "cost of the repaired solution");
+        Check.close(aux.weigth, sol.weigth, "weight of the repaired solution");
+    }
+
+    static void repair(String filename, long seed) throws IOException {
+        KQBF f = new KQBF(filename), reference = new KQBF(filename);
+        Random rng = new Random(seed);
+        int n = f.getDomainSize();
+        for (int trial = 0; trial < TRIALS; trial++) {
+            KSolution<Integer> sol = randomSolution(n, rng.nextDouble(), rng), expected = copy(sol);
+            boolean fits = weight(f, sol) <= f.W_max;
+
+            Check.isTrue(f.repair(sol, false) != fits, "whether the solution was evaluated");
+            Check.close(weight(f, sol), sol.weigth, "weight of the solution");
+            greedyRemovals(reference, expected);
+            Check.equal(new java.util.HashSet<>(expected), new java.util.HashSet<>(sol), "elements kept by the repair");
+            if (!fits)
+                checkEvaluation(reference, sol);
+
+            Check.isTrue(f.repair(sol, true), "refilled solution evaluated");
+            checkEvaluation(reference, sol);
+            Check.isTrue(sol.weigth <= f.W_max, "refilled solution fits");
+            Check.isTrue(sol.containsAll(expected), "refilling only inserts elements");
+            for (int i = 0; i < n; i++)
+                if (!sol.containsElement(i) && sol.weigth + f.W[i] <= f.W_max)
+                    Check.isTrue(reference.evaluateContributionQBF(i, copy(sol)) <= 0,
+                            "no improving element " + i + " fits after the refill");
+        }
+    }
+
+    /**
+     * Gives the smallest cost variation among the insertions, removals and
+     * exchanges keeping a solution in the knapsack, or zero if there is none
+     * smaller.
+     */
+    static double bestMove(KQBF f, KSolution<Integer> sol) {
+        KSolution<Integer> aux = copy(sol);
+        f.evaluate(aux);
+        double best = 0.0, slack = f.W_max - aux.weigth;
+        for (int in = -1; in < f.getDomainSize(); in++) {
+            if (in >= 0 && aux.containsElement(in))
+                continue;
+            for (int k = -1; k < aux.size(); k++) {
+                int out = k < 0 ? -1 : aux.elementAt(k);
+                if (in < 0 && out < 0 || (in >= 0 ? f.W[in] : 0) - (out >= 0 ? f.W[out] : 0) > slack)
+                    continue;
+                double delta = in < 0 ? f.evaluateRemovalCost(out, aux)
+                        : out < 0 ? f.evaluateInsertionCost(in, aux) : f.evaluateExchangeCost(in, out, aux);
+                best = Math.min(best, delta);
+            }
+        }
+        return best;
+    }
+
+    static void localSearch(String filename, long seed) throws IOException {
+        KQBF f = new KQBF(filename), reference = new KQBF(filename);
+        Random rng = new Random(seed);
+        int n = f.getDomainSize();
+        for (int trial = 0; trial < TRIALS / 10; trial++) {
+            KSolution<Integer> sol = randomSolution(n, rng.nextDouble(), rng);
+            f.repair(sol, false);
+
+            // a single move is the best one
+            double cost = reference.evaluate(copy(sol)), best = bestMove(reference, sol);
+            int moves = f.localSearch(sol, 1);
+            Check.equal(best < 0 ? 1 : 0, moves, "moves applied");
+            Check.close(cost + best, sol.cost, "cost after the best move");
+            checkEvaluation(reference, sol);
+            Check.isTrue(sol.weigth <= f.W_max, "solution fits after a move");
+
+            // until no move improves the solution
+            moves = f.localSearch(sol, Integer.MAX_VALUE);
+            checkEvaluation(reference, sol);
+            Check.isTrue(sol.weigth <= f.W_max, "solution fits after the local search");
+            Check.isTrue(bestMove(reference, sol) >= -Check.EPS, "local optimum after " + moves + " moves");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        repair("instances/kqbf/kqbf020", 1);
+        repair("instances/kqbf/kqbf100", 2);
+        repair("instances/kqbf/kqbf400", 3);
+        localSearch("instances/kqbf/kqbf020", 4);
+        localSearch("instances/kqbf/kqbf100", 5);
+        localSearch("instances/kqbf/kqbf200", 6);
+        Check.passed(KQBFTest.class);
+    }
+}
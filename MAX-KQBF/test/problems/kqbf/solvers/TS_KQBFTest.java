@@ -0,0 +1,88 @@
+package problems.kqbf.solvers;
+
+import metaheuristics.tabusearch.AbstractTS;
+import problems.kqbf.KQBF;
+import solutions.KSolution;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks, along tabu searches, the CL kept incrementally by TS_KQBF and the
+ * exchanges its snapshot pairs, against the items out of the solution which
+ * fit into the knapsack and every exchange keeping the solution in it.
+ */
+public class TS_KQBFTest {
+
+    /**
+     * A tabu search checking its CL after each update, and its exchange
+     * neighborhood before each move.
+     */
+    static class CheckedTS extends TS_KQBF {
+
+        int checks = 0;
+
+        CheckedTS(String filename, boolean firstImproving) throws IOException {
+            super(7, filename, firstImproving);
+        }
+
+        KSolution<Integer> solution() {
+            return (KSolution<Integer>) sol;
+        }
+
+        @Override
+        public void updateCL() {
+            super.updateCL();
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < objFunction.getDomainSize(); i++)
+                if (!sol.containsElement(i) && objFunction.W[i] <= objFunction.W_max - solution().weigth)
+                    expected.add(i);
+            Check.equal(expected.size(), CL.size(), "size of the CL");
+            Check.equal(expected, new HashSet<>(CL), "items fitting into the knapsack");
+        }
+
+        @Override
+        protected void _neighborhoodMove(List<Integer> Neighborhood) {
+            if (!sol.isEmpty()) {
+                checkExchanges(Neighborhood);
+                checkExchanges(Neighborhood.subList(0, Neighborhood.size() / 2)); // as sampled by TS_KQBF_Probabilistic
+            }
+            super._neighborhoodMove(Neighborhood);
+        }
+
+        void checkExchanges(List<Integer> Neighborhood) {
+            KQBF f = objFunction;
+            int fitting = f.countFitting(f.W_max - solution().weigth);
+            Set<Long> expected = new HashSet<>(), pairs = new HashSet<>();
+            for (int in = 0; in < f.getDomainSize(); in++) {
+                if (sol.containsElement(in) || (f.rankByWeight(in) < fitting && !Neighborhood.contains(in)))
+                    continue; // a sampled insertion, or an item only entering by an exchange
+                for (int k = 0; k < sol.size(); k++) {
+                    int out = sol.elementAt(k);
+                    if (f.W[in] - f.W[out] <= f.W_max - solution().weigth)
+                        expected.add((long) in << 32 | out);
+                }
+            }
+            int m = exchangeNeighborhood(Neighborhood);
+            for (int i = 0; i < m; i++)
+                for (int j = scanFrom[i]; j < sol.size(); j++)
+                    Check.isTrue(pairs.add((long) scanIns[i] << 32 | scanOuts[j]), "exchange visited once");
+            Check.equal(expected, pairs, "exchanges keeping the solution in the knapsack");
+            checks++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        AbstractTS.verbose = false;
+        for (String instance : new String[] { "kqbf020", "kqbf100" })
+            for (boolean firstImproving : new boolean[] { false, true }) {
+                CheckedTS ts = new CheckedTS("instances/kqbf/" + instance, firstImproving);
+                ts.solve();
+                Check.isTrue(ts.checks > 0, "exchanges checked");
+            }
+        Check.passed(TS_KQBFTest.class);
+    }
+}
@@ -0,0 +1,123 @@
+package problems.qbf;
+
+import solutions.Solution;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the insertion, removal, exchange and flips costs of the QBF
+ * evaluators, and the costs kept by the apply* moves, against the matrix
+ * product x'.A.x computed from scratch, along random walks over the
+ * solutions.
+ */
+public class QBFTest {
+
+    private static final int STEPS = 2000;
+
+    /**
+     * Computes x'.A.x for a solution, without the state of the evaluator.
+     */
+    static double product(QBF f, Solution<Integer> sol) {
+        int n = f.getDomainSize();
+        double sum = 0;
+        for (int a = 0; a < sol.size(); a++)
+            for (int b = 0; b < sol.size(); b++)
+                sum += f.A[sol.elementAt(a) * n + sol.elementAt(b)];
+        return f instanceof QBF_Inverse ? -sum : sum;
+    }
+
+    static Solution<Integer> with(Solution<Integer> sol, int in, int out) {
+        Solution<Integer> aux = new Solution<>(sol);
+        if (out >= 0)
+            aux.remove((Integer) out);
+        if (in >= 0)
+            aux.add(in);
+        return aux;
+    }
+
+    static void deltas(QBF f, long seed) {
+        Random rng = new Random(seed);
+        int n = f.getDomainSize();
+        Solution<Integer> sol = new Solution<>(n);
+        f.evaluate(sol);
+        int[] flips = new int[3];
+        double[] costs = new double[n];
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            all.add(i);
+
+        for (int step = 0; step < STEPS; step++) {
+            double cost = product(f, sol);
+            Check.close(cost, sol.cost, "cost kept by the moves at step " + step);
+
+            int in = rng.nextInt(n), out = sol.isEmpty() ? -1 : sol.elementAt(rng.nextInt(sol.size()));
+            if (!sol.containsElement(in))
+                Check.close(product(f, with(sol, in, -1)) - cost, f.evaluateInsertionCost(in, sol), "insertion of " + in);
+            else
+                Check.close(0.0, f.evaluateInsertionCost(in, sol), "insertion of the element " + in + " of the solution");
+            if (out >= 0) {
+                Check.close(product(f, with(sol, -1, out)) - cost, f.evaluateRemovalCost(out, sol), "removal of " + out);
+                if (!sol.containsElement(in))
+                    Check.close(product(f, with(sol, in, out)) - cost, f.evaluateExchangeCost(in, out, sol),
+                            "exchange of " + in + " for " + out);
+            }
+
+            // distinct variables to flip
+            int count = 1 + rng.nextInt(flips.length);
+            Solution<Integer> flipped = new Solution<>(sol);
+            for (int k = 0; k < count; k++) {
+                flips[k] = (k == 0 ? rng.nextInt(n) : flips[k - 1] + 1 + rng.nextInt(n / flips.length)) % n;
+                if (!flipped.remove((Integer) flips[k]))
+                    flipped.add(flips[k]);
+            }
+            Check.close(product(f, flipped) - cost, f.evaluateFlipsCost(sol, flips, count), "flips");
+
+            f.evaluateInsertionCosts(all, sol, costs);
+            for (int i = 0; i < n; i++)
+                Check.close(f.evaluateInsertionCost(i, sol), costs[i], "batched insertion of " + i);
+
+            // a random move, mostly keeping the solution about half full
+            int move = rng.nextInt(3);
+            if (out < 0 || (move == 0 && !sol.containsElement(in)))
+                f.applyInsertion(in, sol);
+            else if (move == 1)
+                f.applyRemoval(out, sol);
+            else
+                f.applyExchange(in, out, sol);
+        }
+    }
+
+    /**
+     * Checks that a solution can be evaluated again after another one was
+     * loaded, and that a periodic recomputation keeps the cost.
+     */
+    static void reload(QBF f, long seed) {
+        Random rng = new Random(seed);
+        int n = f.getDomainSize();
+        Solution<Integer> a = new Solution<>(n), b = new Solution<>(n);
+        f.driftCheckInterval = 7;
+        for (int step = 0; step < STEPS / 10; step++) {
+            Solution<Integer> sol = rng.nextBoolean() ? a : b;
+            f.evaluate(sol);
+            f.applyInsertion(rng.nextInt(n), sol);
+            if (!sol.isEmpty() && rng.nextInt(3) == 0)
+                f.applyRemoval(sol.elementAt(rng.nextInt(sol.size())), sol);
+            Check.close(product(f, sol), sol.cost, "cost after switching solutions at step " + step);
+        }
+        f.driftCheckInterval = 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String instance : new String[] { "qbf020", "qbf100" }) {
+            deltas(new QBF("instances/qbf/" + instance), 1);
+            deltas(new QBF_Inverse("instances/qbf/" + instance), 2);
+            reload(new QBF("instances/qbf/" + instance), 3);
+            deltas(new QBF("instances/qbf/" + instance).copy(), 4);
+        }
+        Check.passed(QBFTest.class);
+    }
+}
@@ -0,0 +1,65 @@
+package problems.qbf.solvers;
+
+import metaheuristics.ga.Chromosome;
+import problems.qbf.QBF_Inverse;
+import solutions.Solution;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the fitness GA_QBF computes from the genes changed since the last
+ * evaluation against a full evaluation of the chromosome, along random
+ * mutations and crossovers.
+ */
+public class GA_QBFTest {
+
+    private static final int STEPS = 3000;
+
+    static double fullFitness(QBF_Inverse f, Chromosome chromosome) {
+        Solution<Integer> sol = new Solution<>(chromosome.size());
+        for (int i = chromosome.nextSetBit(0); i >= 0; i = chromosome.nextSetBit(i + 1))
+            sol.add(i);
+        return -f.evaluate(sol);
+    }
+
+    static void deltaFitness(String filename, long seed) throws IOException {
+        GA_QBF ga = new GA_QBF(1, 2, 0.01, filename);
+        QBF_Inverse f = new QBF_Inverse(filename);
+        SplittableRandom rng = new SplittableRandom(seed);
+        int n = f.getDomainSize();
+        Chromosome a = Chromosome.random(n, rng), b = Chromosome.random(n, rng);
+        a.fitness = ga.fitness(a);
+        b.fitness = ga.fitness(b);
+
+        for (int step = 0; step < STEPS; step++) {
+            Chromosome c = rng.nextBoolean() ? a : b;
+            switch (rng.nextInt(3)) {
+                case 0: // a few mutations
+                    for (int k = rng.nextInt(4); k >= 0; k--)
+                        ga.mutateGene(c, rng.nextInt(n));
+                    break;
+                case 1: // a crossover segment
+                    int from = rng.nextInt(n), to = from + rng.nextInt(n - from + 1);
+                    a.exchange(b, from, to);
+                    break;
+                default: // nothing changed, the fitness is kept
+                    break;
+            }
+            for (Chromosome x : new Chromosome[] { a, b }) {
+                double fitness = ga.fitness(x);
+                Check.close(fullFitness(f, x), fitness, "delta fitness at step " + step);
+                if (rng.nextInt(4) > 0) // sometimes left unevaluated, accumulating changes
+                    x.fitness = fitness;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        deltaFitness("instances/qbf/qbf020", 1);
+        deltaFitness("instances/qbf/qbf100", 2);
+        deltaFitness("instances/qbf/qbf400", 3);
+        Check.passed(GA_QBFTest.class);
+    }
+}
@@ -0,0 +1,276 @@
+package problems.qbf.solvers;
+
+import metaheuristics.grasp.ConstructiveHeuristic;
+import problems.qbf.QBF;
+import problems.qbf.QBF_Inverse;
+import solutions.Solution;
+import structures.IntIndexedSet;
+import structures.RandomLists;
+import testing.Check;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that the bounds of a QBFLocalSearch never skip an exchange cheaper
+ * than the threshold, against a scan of all the exchanges, along random walks
+ * mixing the best moves with arbitrary ones, and that the local search of
+ * GRASP_QBF applies the same moves as a scan of all of them.
+ */
+public class QBFLocalSearchTest {
+
+    private static final int STEPS = 300;
+
+    static Solution<Integer> with(Solution<Integer> sol, int in, int out) {
+        Solution<Integer> aux = new Solution<>(sol);
+        if (out >= 0)
+            aux.remove((Integer) out);
+        if (in >= 0)
+            aux.add(in);
+        return aux;
+    }
+
+    /**
+     * The smallest cost of the exchanges bringing a variable into a solution,
+     * from a scan of all of them.
+     */
+    static double minExchangeCost(QBF ref, Solution<Integer> sol, int in) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < sol.size(); k++)
+            min = Math.min(min, ref.evaluateExchangeCost(in, sol.elementAt(k), sol));
+        return min;
+    }
+
+    static void bounds(String filename, long seed) throws IOException {
+        Random rng = new Random(seed);
+        QBF f = new QBF_Inverse(filename), ref = new QBF_Inverse(filename);
+        int n = f.getDomainSize();
+        QBFLocalSearch engine = new QBFLocalSearch(f);
+        double[] mins = new double[n];
+
+        for (int round = 0; round < 3; round++) {
+            Solution<Integer> sol = new Solution<>(n);
+            for (int i = 0; i < n; i++)
+                if (rng.nextBoolean())
+                    sol.add(i);
+            sol.cost = f.evaluate(sol);
+            engine.load(sol); // the bounds of the former round are forgotten
+
+            for (int step = 0; step < STEPS; step++) {
+                double cost = sol.cost;
+                Check.close(ref.evaluate(new Solution<>(sol)), cost, "cost kept by the moves at step " + step);
+                for (int t = 0; t < 3; t++) {
+                    int i = rng.nextInt(n);
+                    boolean inSol = sol.containsElement(i);
+                    Check.close(ref.evaluate(with(sol, inSol ? -1 : i, inSol ? i : -1)) - cost, engine.flipCost(i),
+                            "flip cost of " + i + " at step " + step);
+                }
+
+                double bestCost = Double.POSITIVE_INFINITY;
+                int bestIn = -1, bestOut = -1;
+                for (int k = 0; k < sol.size(); k++) {
+                    double deltaCost = ref.evaluateRemovalCost(sol.elementAt(k), sol);
+                    if (deltaCost < bestCost) {
+                        bestCost = deltaCost;
+                        bestOut = sol.elementAt(k);
+                    }
+                }
+                for (int in = 0; in < n; in++) {
+                    if (sol.containsElement(in))
+                        continue;
+                    mins[in] = minExchangeCost(ref, sol, in);
+                    double[] thresholds = { mins[in] - 1, mins[in], mins[in] + 1, bestCost,
+                            mins[in] + rng.nextGaussian() * 10 };
+                    for (double threshold : thresholds)
+                        if (engine.dontLook(in, threshold))
+                            Check.isTrue(mins[in] >= threshold - Check.EPS, "variable " + in
+                                    + " skipped with an exchange of cost " + mins[in] + " below " + threshold
+                                    + " at step " + step);
+                    double deltaCost = ref.evaluateInsertionCost(in, sol);
+                    if (deltaCost < bestCost) {
+                        bestCost = deltaCost;
+                        bestIn = in;
+                        bestOut = -1;
+                    }
+                    for (int k = 0; k < sol.size(); k++) {
+                        deltaCost = ref.evaluateExchangeCost(in, sol.elementAt(k), sol);
+                        if (deltaCost < bestCost) {
+                            bestCost = deltaCost;
+                            bestIn = in;
+                            bestOut = sol.elementAt(k);
+                        }
+                    }
+                }
+                // bounds set only for some variables, as by a scan stopping early
+                for (int in = 0; in < n; in++)
+                    if (!sol.containsElement(in) && !sol.isEmpty() && rng.nextInt(3) > 0)
+                        engine.setBound(in, mins[in]);
+
+                int in = -1, out = -1, move = rng.nextInt(4);
+                boolean emptying = move == 1 && sol.size() <= 2 && !sol.isEmpty();
+                if (move == 0) { // the best move, even if it does not improve the solution
+                    in = bestIn;
+                    out = bestOut;
+                } else if (emptying) // emptying the solution now and then
+                    out = sol.elementAt(0);
+                else { // an arbitrary move
+                    int i = rng.nextInt(n);
+                    if (sol.containsElement(i))
+                        out = i;
+                    else {
+                        in = i;
+                        if (!sol.isEmpty() && rng.nextBoolean())
+                            out = sol.elementAt(rng.nextInt(sol.size()));
+                    }
+                }
+                if (sol.size() > n / 4 && rng.nextInt(8) == 0)
+                    in = -1; // drifting towards small solutions
+                if (in >= 0 || out >= 0)
+                    engine.apply(in, out);
+            }
+        }
+    }
+
+    /**
+     * Exposes the local search of GRASP_QBF from a given solution and CL, and
+     * the same search scanning every move, without the bounds.
+     */
+    static class Searcher extends GRASP_QBF {
+
+        /**
+         * the number of positions of the CL already drawn by the full scan
+         */
+        private int drawn;
+
+        Searcher(String filename, boolean stImproving, long seed) throws IOException {
+            super(0.05, 1, filename, ConstructiveHeuristic.ConstructiveHeuristicType.Basic, stImproving);
+            setRandomGenerator(new SplittableRandom(seed));
+        }
+
+        void search(Solution<Integer> sol, IntIndexedSet CL, boolean fullScan) {
+            sol.cost = ObjFunction.evaluate(sol);
+            this.sol = sol;
+            this.CL = CL;
+            if (fullScan)
+                fullScan();
+            else
+                localSearch();
+        }
+
+        /**
+         * The local search of GRASP_QBF drawing the same random orders, but
+         * evaluating all the exchanges.
+         */
+        private void fullScan() {
+            double minDeltaCost;
+            RandomLists.shuffle(sol, rng);
+            do {
+                minDeltaCost = Double.POSITIVE_INFINITY;
+                int bestCandIn = -1, bestCandOut = -1;
+                drawn = 0;
+                for (int k = 0; k < sol.size(); k++) {
+                    double deltaCost = ObjFunction.evaluateRemovalCost(sol.elementAt(k), sol);
+                    if (deltaCost < minDeltaCost) {
+                        minDeltaCost = deltaCost;
+                        bestCandOut = sol.elementAt(k);
+                        if (stImproving) break;
+                    }
+                }
+                outerLoop:
+                for (int i = 0; i < CL.size(); i++)
+                    for (int k = 0; k < sol.size(); k++) {
+                        double deltaCost = ObjFunction.evaluateExchangeCost(candidateAt(i), sol.elementAt(k), sol);
+                        if (deltaCost < minDeltaCost) {
+                            minDeltaCost = deltaCost;
+                            bestCandIn = candidateAt(i);
+                            bestCandOut = sol.elementAt(k);
+                            if (stImproving) break outerLoop;
+                        }
+                    }
+                for (int i = 0; i < CL.size(); i++) {
+                    double deltaCost = ObjFunction.evaluateInsertionCost(candidateAt(i), sol);
+                    if (deltaCost < minDeltaCost) {
+                        minDeltaCost = deltaCost;
+                        bestCandIn = candidateAt(i);
+                        bestCandOut = -1;
+                        if (stImproving) break;
+                    }
+                }
+                if (minDeltaCost < -Double.MIN_VALUE) {
+                    if (bestCandOut >= 0) {
+                        ObjFunction.applyRemoval(bestCandOut, sol);
+                        CL.add(bestCandOut);
+                    }
+                    if (bestCandIn >= 0) {
+                        ObjFunction.applyInsertion(bestCandIn, sol);
+                        CL.remove((Integer) bestCandIn);
+                    }
+                }
+            } while (minDeltaCost < -Double.MIN_VALUE);
+        }
+
+        /**
+         * Draws the candidate of a position of the CL as GRASP_QBF does, the
+         * positions being visited in increasing order from the first one.
+         */
+        private int candidateAt(int i) {
+            IntIndexedSet candidates = (IntIndexedSet) CL;
+            if (i == drawn) {
+                candidates.swap(i, i + rng.nextInt(candidates.size() - i));
+                drawn++;
+            }
+            return candidates.getInt(i);
+        }
+    }
+
+    /**
+     * Runs the local search of GRASP_QBF and the one scanning every move from
+     * the same random solutions and orders, and checks that they apply the
+     * same moves. A best-improving search must also end in a solution which
+     * no insertion, removal or exchange improves.
+     */
+    static void fullScan(String filename, boolean stImproving, long seed) throws IOException {
+        Random rng = new Random(seed);
+        Searcher grasp = new Searcher(filename, stImproving, seed), full = new Searcher(filename, stImproving, seed);
+        QBF ref = new QBF_Inverse(filename);
+        int n = ref.getDomainSize();
+        for (int round = 0; round < 20; round++) {
+            Solution<Integer> sol = grasp.createEmptySol(), expected = full.createEmptySol();
+            IntIndexedSet CL = new IntIndexedSet(n), expectedCL = new IntIndexedSet(n);
+            for (int i = 0; i < n; i++)
+                if (rng.nextInt(4) == 0) {
+                    sol.add(i);
+                    expected.add(i);
+                } else {
+                    CL.addInt(i);
+                    expectedCL.addInt(i);
+                }
+            grasp.search(sol, CL, false);
+            full.search(expected, expectedCL, true);
+
+            Check.equal(expected, sol, "solution of the local search in round " + round);
+            Check.equal(expectedCL, CL, "CL of the local search in round " + round);
+            Check.close(ref.evaluate(new Solution<>(sol)), sol.cost, "cost after the local search");
+            if (stImproving)
+                continue;
+            for (int i = 0; i < n; i++)
+                if (sol.containsElement(i))
+                    Check.isTrue(ref.evaluateRemovalCost(i, sol) >= -Check.EPS, "improving removal of " + i);
+                else {
+                    Check.isTrue(ref.evaluateInsertionCost(i, sol) >= -Check.EPS, "improving insertion of " + i);
+                    Check.isTrue(minExchangeCost(ref, sol, i) >= -Check.EPS, "improving exchange of " + i);
+                }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        bounds("instances/qbf/qbf020", 1);
+        bounds("instances/qbf/qbf100", 2);
+        for (boolean stImproving : new boolean[] { false, true }) {
+            fullScan("instances/qbf/qbf040", stImproving, 3);
+            fullScan("instances/qbf/qbf200", stImproving, 4);
+        }
+        Check.passed(QBFLocalSearchTest.class);
+    }
+}
@@ -0,0 +1,76 @@
+package structures;
+
+import testing.Check;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks IndexedMinHeap against a sorted set of the integers ordered by their
+ * keys and then by themselves, along random operations.
+ */
+public class IndexedMinHeapTest {
+
+    private static final int STEPS = 200000;
+
+    static void randomOperations(int capacity, long seed) {
+        Random rng = new Random(seed);
+        IndexedMinHeap heap = new IndexedMinHeap(capacity);
+        double[] keys = new double[capacity];
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.<Integer>comparingDouble(i -> keys[i]).thenComparing(i -> i));
+
+        for (int step = 0; step < STEPS; step++) {
+            int i = rng.nextInt(capacity);
+            double key = rng.nextInt(capacity / 2 + 1); // many equal keys
+            switch (rng.nextInt(6)) {
+                case 0:
+                case 1: // insertion or change of key
+                    expected.remove(i);
+                    keys[i] = key;
+                    expected.add(i);
+                    heap.put(i, key);
+                    break;
+                case 2:
+                    expected.remove(i);
+                    heap.remove(i);
+                    break;
+                case 3:
+                    if (!expected.isEmpty())
+                        Check.equal((int) expected.pollFirst(), heap.poll(), "polled integer");
+                    break;
+                case 4:
+                    if (rng.nextInt(100) == 0) {
+                        int n = rng.nextInt(capacity + 1);
+                        expected.clear();
+                        for (int j = 0; j < n; j++) {
+                            keys[j] = rng.nextInt(capacity / 2 + 1);
+                            expected.add(j);
+                        }
+                        heap.build(n, j -> keys[j]);
+                    }
+                    break;
+                default:
+                    if (rng.nextInt(100) == 0) {
+                        expected.clear();
+                        heap.clear();
+                    }
+                    break;
+            }
+            Check.equal(expected.size(), heap.size(), "size");
+            Check.isTrue(heap.isEmpty() == expected.isEmpty(), "emptiness");
+            Check.isTrue(heap.contains(i) == expected.contains(i), "membership of " + i);
+            if (heap.contains(i))
+                Check.isTrue(heap.key(i) == keys[i], "key of " + i);
+            if (!expected.isEmpty())
+                Check.equal((int) expected.first(), heap.peek(), "smallest integer");
+        }
+    }
+
+    public static void main(String[] args) {
+        randomOperations(1, 1);
+        randomOperations(7, 2);
+        randomOperations(100, 3);
+        Check.passed(IndexedMinHeapTest.class);
+    }
+}
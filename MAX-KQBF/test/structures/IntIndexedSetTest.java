@@ -0,0 +1,136 @@
+package structures;
+
+import testing.Check;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks IntIndexedSet against a list of its elements with the same
+ * swap-remove semantics along random operations, and the uniformity of the
+ * samples drawn by shufflePrefix.
+ */
+public class IntIndexedSetTest {
+
+    private static final int STEPS = 100000;
+
+    static void checkElements(List<Integer> expected, IntIndexedSet set) {
+        Check.equal(expected.size(), set.size(), "size");
+        for (int index = 0; index < expected.size(); index++) {
+            int i = expected.get(index);
+            Check.equal(i, set.getInt(index), "element at " + index);
+            Check.equal(index, set.indexOf(i), "position of " + i);
+        }
+        for (int i = -1; i <= set.capacity(); i++)
+            Check.isTrue(set.containsInt(i) == expected.contains(i), "membership of " + i);
+    }
+
+    /**
+     * Removes the element at a position of a list, moving the last one into it.
+     */
+    static int swapRemove(List<Integer> list, int index) {
+        int last = list.remove(list.size() - 1);
+        return index == list.size() ? last : list.set(index, last);
+    }
+
+    static void randomOperations(int capacity, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        IntIndexedSet set = rng.nextBoolean() ? new IntIndexedSet(capacity) : IntIndexedSet.full(capacity);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < set.size(); i++)
+            expected.add(i);
+
+        for (int step = 0; step < STEPS; step++) {
+            int i = rng.nextInt(capacity);
+            switch (rng.nextInt(8)) {
+                case 0:
+                case 1:
+                    Check.isTrue(set.addInt(i) != expected.contains(i), "whether " + i + " was added");
+                    if (!expected.contains(i))
+                        expected.add(i);
+                    break;
+                case 2:
+                    if (expected.contains(i)) {
+                        Check.isTrue(set.remove((Integer) i), "removal of " + i);
+                        swapRemove(expected, expected.indexOf(i));
+                    } else
+                        Check.isTrue(!set.removeInt(i), "removal of the missing " + i);
+                    break;
+                case 3:
+                    if (!expected.isEmpty()) {
+                        int index = rng.nextInt(expected.size());
+                        Check.equal(swapRemove(expected, index), (int) set.remove(index), "removal at " + index);
+                    }
+                    break;
+                case 4:
+                    if (!expected.isEmpty()) {
+                        int a = rng.nextInt(expected.size()), b = rng.nextInt(expected.size());
+                        set.swap(a, b);
+                        expected.set(a, expected.set(b, expected.get(a)));
+                    }
+                    break;
+                case 5:
+                    if (!expected.isEmpty()) {
+                        int k = rng.nextInt(expected.size() + 1);
+                        HashSet<Integer> before = new HashSet<>(expected);
+                        set.shufflePrefix(k, rng);
+                        Check.equal(before, new HashSet<>(set), "elements after a shuffle");
+                        expected.clear();
+                        expected.addAll(set);
+                        Check.isTrue(expected.contains(set.sample(rng)), "sample of the set");
+                    }
+                    break;
+                case 6:
+                    if (rng.nextInt(20) == 0) {
+                        int m = 2 + rng.nextInt(3);
+                        boolean removed = set.removeMatching(e -> e % m == 0);
+                        boolean expectedRemoved = false;
+                        for (int index = expected.size() - 1; index >= 0; index--)
+                            if (expected.get(index) % m == 0) {
+                                swapRemove(expected, index);
+                                expectedRemoved = true;
+                            }
+                        Check.isTrue(removed == expectedRemoved, "whether any multiple of " + m + " was removed");
+                    }
+                    break;
+                default:
+                    if (rng.nextInt(100) == 0) {
+                        set.clear();
+                        expected.clear();
+                    }
+                    break;
+            }
+            checkElements(expected, set);
+        }
+    }
+
+    /**
+     * Checks that each element is drawn to each position of the shuffled
+     * prefix about as often as the others.
+     */
+    static void uniformPrefix(int size, int k, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        IntIndexedSet set = IntIndexedSet.full(size);
+        int trials = 20000 * size;
+        int[][] counts = new int[k][size];
+        for (int trial = 0; trial < trials; trial++) {
+            set.shufflePrefix(k, rng);
+            for (int index = 0; index < k; index++)
+                counts[index][set.getInt(index)]++;
+        }
+        for (int index = 0; index < k; index++)
+            for (int i = 0; i < size; i++)
+                Check.isTrue(Math.abs((double) counts[index][i] * size / trials - 1.0) < 0.05,
+                        "frequency of " + i + " at " + index);
+    }
+
+    public static void main(String[] args) {
+        randomOperations(1, 1);
+        randomOperations(10, 2);
+        randomOperations(100, 3);
+        uniformPrefix(7, 3, 4);
+        Check.passed(IntIndexedSetTest.class);
+    }
+}
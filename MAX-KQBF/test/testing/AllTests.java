@@ -0,0 +1,25 @@
+package testing;
+
+import java.io.IOException;
+
+/**
+ * Runs every test class, from the MAX-KQBF directory.
+ */
+public class AllTests {
+
+    public static void main(String[] args) throws IOException {
+        problems.qbf.QBFTest.main(args);
+        problems.qbf.solvers.GA_QBFTest.main(args);
+        structures.IndexedMinHeapTest.main(args);
+        structures.IntIndexedSetTest.main(args);
+        problems.kqbf.KQBFTest.main(args);
+        metaheuristics.ga.ChromosomeTest.main(args);
+        metaheuristics.ga.FitnessCacheTest.main(args);
+        metaheuristics.ga.CrossoverTest.main(args);
+        metaheuristics.ga.PopulationTest.main(args);
+        metaheuristics.ga.SteadyStateGATest.main(args);
+        problems.kqbf.solvers.TS_KQBFTest.main(args);
+        problems.qbf.solvers.QBFLocalSearchTest.main(args);
+        metaheuristics.tabusearch.IndexedTabuListTest.main(args);
+    }
+}
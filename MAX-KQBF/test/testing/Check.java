@@ -0,0 +1,46 @@
+package testing;
+
+/**
+ * Minimal assertions for the test classes, which are plain programs run from
+ * the MAX-KQBF directory, so that the instances can be read from it. A failed
+ * check throws an {@link AssertionError}.
+ */
+public final class Check {
+
+    /**
+     * The tolerance for costs compared after a sequence of delta updates.
+     */
+    public static final double EPS = 1e-6;
+
+    private Check() {
+    }
+
+    public static void isTrue(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+
+    public static void equal(long expected, long actual, String message) {
+        if (expected != actual)
+            throw new AssertionError(message + ": expected " + expected + ", got " + actual);
+    }
+
+    public static void equal(Object expected, Object actual, String message) {
+        if (expected == null ? actual != null : !expected.equals(actual))
+            throw new AssertionError(message + ": expected " + expected + ", got " + actual);
+    }
+
+    public static void close(double expected, double actual, String message) {
+        if (!(Math.abs(expected - actual) <= EPS * Math.max(1.0, Math.abs(expected))))
+            throw new AssertionError(message + ": expected " + expected + ", got " + actual);
+    }
+
+    /**
+     * Reports a test class which passed.
+     *
+     * @param test the test class.
+     */
+    public static void passed(Class<?> test) {
+        System.out.println(test.getSimpleName() + ": OK");
+    }
+}